@@ -1,7 +1,7 @@
 /*
  * The MIT License
  *
- * Copyright 2017 Raymond Buckley.
+ * Copyright 2018 Raymond Buckley.
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -22,33 +22,28 @@
  * THE SOFTWARE.
  */
 
-package com.ray3k.superbug.entities;
+package com.ray3k.superbug.benchmarks;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.ray3k.superbug.Core;
 import com.ray3k.superbug.Entity;
-import com.ray3k.superbug.states.GameOverState;
-import com.ray3k.superbug.states.GameState;
 
-public class GameOverTimerEntity extends Entity {
-    private float time;
+/**
+ * Entity with a small collision box and no behaviour, so benchmarks only
+ * measure the EntityManager.
+ */
+public class BenchmarkEntity extends Entity {
+    public static final float BOX_SIZE = 4.0f;
     
-    public GameOverTimerEntity(float time) {
-        this.time = time;
+    public BenchmarkEntity() {
+        getCollisionBox().setSize(BOX_SIZE, BOX_SIZE);
     }
-    
+
     @Override
     public void create() {
     }
 
     @Override
     public void act(float delta) {
-        time -= delta;
-        if (time < 0) {
-            dispose();
-            ((GameOverState) Core.stateManager.getState("game-over")).setScore(GameState.inst().getScore());
-            Core.stateManager.loadState("game-over");
-        }
     }
 
     @Override
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.superbug.Entity;
+import com.ray3k.superbug.EntityManager;
+import com.ray3k.superbug.SpatialHashBroadphase;
+import java.util.Iterator;
+
+/**
+ * Compares the pair tests and tick time of the spatial hash against the
+ * nested loop EntityManager.act ran before the broadphase, copied here as it
+ * was. Population sizes can be passed as arguments.
+ */
+public class BroadphaseBenchmark {
+    private static final float DELTA = .01f;
+    private static final float AREA_PER_ENTITY = 64.0f;
+    
+    public static void main(String[] args) {
+        int[] sizes = {2000, 20000, 100000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        
+        System.out.println(String.format("%-12s %10s %18s %14s", "broadphase", "entities", "pair tests/tick", "ms/tick"));
+        for (int size : sizes) {
+            runNestedLoop(size);
+            runSpatialHash(size);
+        }
+    }
+    
+    private static void runSpatialHash(int size) {
+        EntityManager entityManager = new EntityManager();
+        entityManager.setBroadphase(new SpatialHashBroadphase());
+        Array<Entity> entities = createEntities(size);
+        for (int i = 0; i < entities.size; i++) {
+            entityManager.addEntity(entities.get(i));
+        }
+        
+        for (int i = 0; i < 20; i++) {
+            entityManager.act(DELTA);
+        }
+        
+        int ticks = Math.max(10, 2000000 / size);
+        entityManager.resetPairTests();
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            entityManager.act(DELTA);
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        print("spatial hash", size, entityManager.getPairTests() / ticks, elapsed / ticks);
+    }
+    
+    private static void runNestedLoop(int size) {
+        Array<Entity> entities = createEntities(size);
+        for (int i = 0; i < entities.size; i++) {
+            entities.get(i).create();
+        }
+        
+        long budget = 20000000000L;
+        int warmup = (int) Math.min(20, budget / ((long) size * size * 20));
+        int ticks = (int) Math.max(1, Math.min(200, budget / ((long) size * size)));
+        for (int i = 0; i < warmup; i++) {
+            actNestedLoop(entities, DELTA);
+        }
+        
+        long pairTests = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            pairTests += actNestedLoop(entities, DELTA);
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        print("nested loop", size, pairTests / ticks, elapsed / ticks);
+    }
+    
+    /**
+     * EntityManager.act from before the broadphase, with a counter for the
+     * pair tests.
+     * @return the pair tests run
+     */
+    private static long actNestedLoop(Array<Entity> entities, float delta) {
+        long pairTests = 0;
+        Iterator<Entity> iter = entities.iterator();
+        while (iter.hasNext()) {
+            Entity entity = iter.next();
+            if (!entity.isDestroyed()) {
+                entity.addXspeed(entity.getGravityX() * delta);
+                entity.addYspeed(entity.getGravityY() * delta);
+                
+                entity.addX(entity.getXspeed() * delta);
+                entity.addY(entity.getYspeed() * delta);
+                
+                entity.getCollisionBox().setPosition(entity.getX() + entity.getCollisionBoxX(), entity.getY() + entity.getCollisionBoxY());
+                entity.act(delta);
+                
+                for (int i = 0; i < entities.size ; i++) {
+                    if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
+                        Entity other = entities.get(i);
+                        if (other.isCheckingCollisions()) {
+                            pairTests++;
+                            if (entity.getCollisionBox().overlaps(other.getCollisionBox())) {
+                                entity.collision(other);
+                            }
+                        }
+                    } else {
+                        break;
+                    }
+                }
+            } else {
+                iter.remove();
+            }
+        }
+        
+        iter = entities.iterator();
+        while (iter.hasNext()) {
+            Entity entity = iter.next();
+            
+            entity.actEnd(delta);
+        }
+        return pairTests;
+    }
+    
+    private static Array<Entity> createEntities(int size) {
+        MathUtils.random.setSeed(size);
+        float extent = (float) Math.sqrt(size * AREA_PER_ENTITY);
+        Array<Entity> entities = new Array<Entity>();
+        for (int i = 0; i < size; i++) {
+            BenchmarkEntity entity = new BenchmarkEntity();
+            entity.setPosition(MathUtils.random(extent), MathUtils.random(extent));
+            entity.setMotion(20.0f, MathUtils.random(360.0f));
+            entity.setCheckingCollisions(true);
+            entities.add(entity);
+        }
+        return entities;
+    }
+    
+    private static void print(String name, int size, long pairTests, long nanosPerTick) {
+        System.out.println(String.format("%-12s %10d %18d %14.3f", name, size, pairTests, nanosPerTick / 1000000.0));
+    }
+}
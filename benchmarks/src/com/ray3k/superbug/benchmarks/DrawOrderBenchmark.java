@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.ray3k.superbug.EntityManager;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Draw pass over a population like the game's: thousands of germs at one depth
+ * above a dish. Entities don't draw anything, so this measures the ordering
+ * and the loop. steady draws with no depth changes, depthChange moves one
+ * entity first to force a sort.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DrawOrderBenchmark {
+    @Param({"2000", "20000"})
+    public int size;
+    private EntityManager entityManager;
+    private BenchmarkEntity mover;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        entityManager = new EntityManager();
+        BenchmarkEntity dish = new BenchmarkEntity();
+        dish.setDepth(10);
+        entityManager.addEntity(dish);
+        
+        for (int i = 0; i < size; i++) {
+            entityManager.addEntity(new BenchmarkEntity());
+        }
+        
+        mover = new BenchmarkEntity();
+        entityManager.addEntity(mover);
+        entityManager.draw(null, 0.0f);
+    }
+    
+    @Benchmark
+    public void steady() {
+        entityManager.draw(null, 0.0f);
+    }
+    
+    @Benchmark
+    public void depthChange() {
+        mover.setDepth(mover.getDepth() == 0 ? 5 : 0);
+        entityManager.draw(null, 0.0f);
+    }
+}
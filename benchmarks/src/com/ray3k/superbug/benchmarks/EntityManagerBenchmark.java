@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.ray3k.superbug.EntityManager;
+import com.ray3k.superbug.SimulationRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One EntityManager tick with collisions and about 1% of the population dying
+ * and being replaced, and one draw pass.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityManagerBenchmark {
+    private static final float DELTA = .01f;
+    private static final float AREA_PER_ENTITY = 64.0f;
+    @Param({"100", "2000", "20000"})
+    public int size;
+    private EntityManager entityManager;
+    private BenchmarkEntity[] entities;
+    private SimulationRandom random;
+    private float extent;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        random = new SimulationRandom(size);
+        extent = (float) Math.sqrt(size * AREA_PER_ENTITY);
+        entityManager = new EntityManager();
+        entities = new BenchmarkEntity[size];
+        for (int i = 0; i < size; i++) {
+            entities[i] = createEntity();
+            entityManager.addEntity(entities[i]);
+        }
+        entityManager.act(DELTA);
+    }
+    
+    private BenchmarkEntity createEntity() {
+        BenchmarkEntity entity = new BenchmarkEntity();
+        entity.setPosition(random.random(extent), random.random(extent));
+        entity.setMotion(20.0f, random.random(360.0f));
+        entity.setDepth(random.random(3));
+        entity.setCheckingCollisions(true);
+        return entity;
+    }
+    
+    @Benchmark
+    public void act() {
+        int churn = Math.max(1, size / 100);
+        for (int i = 0; i < churn; i++) {
+            int index = random.nextInt(size);
+            entities[index].dispose();
+            entities[index] = createEntity();
+            entityManager.addEntity(entities[index]);
+        }
+        
+        entityManager.act(DELTA);
+    }
+    
+    @Benchmark
+    public void draw() {
+        entityManager.draw(null, 0.0f);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.ray3k.superbug.entities.GermEntity;
+import com.ray3k.superbug.SimulationContext;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-germ update (skeleton plus actSub) for the whole population, and one
+ * split of every germ.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GermBenchmark {
+    private static final float DELTA = .01f;
+    @Param({"100", "2000", "20000"})
+    public int size;
+    private GermEntity[] germs;
+    private SimulationContext context;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkSimulation.start(size);
+        
+        germs = new GermEntity[size];
+        for (int i = 0; i < size; i++) {
+            germs[i] = new GermEntity(context);
+            germs[i].setPosition(context.getDish().getX() + context.getRandom().spawn.random(-100.0f, 100.0f), context.getDish().getY() + context.getRandom().spawn.random(-100.0f, 100.0f));
+        }
+    }
+    
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        context.setGermCount((int) context.getGermLimit());
+    }
+    
+    @Benchmark
+    public void act() {
+        for (int i = 0; i < germs.length; i++) {
+            germs[i].act(DELTA);
+        }
+    }
+    
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        for (int i = 0; i < germs.length; i++) {
+            blackhole.consume(new GermEntity(germs[i]));
+        }
+    }
+}
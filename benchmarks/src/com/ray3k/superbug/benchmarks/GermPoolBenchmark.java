@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.ray3k.superbug.entities.GermEntity;
+import com.ray3k.superbug.SimulationContext;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulation ticks with and without the germ pool. Every iteration grows a new
+ * population from a small sample until the first generation starts dying, and
+ * food is kept full while measuring so it never runs out and stops the
+ * splits. Every tick measured has germs both splitting and dying. Compare
+ * gc.alloc.rate.norm between the two pooled values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GermPoolBenchmark {
+    private static final float DELTA = .01f;
+    private static final int INITIAL_GERMS = 200;
+    private static final int GROWTH_TICKS = 2500;
+    @Param({"false", "true"})
+    public boolean pooled;
+    private SimulationContext context;
+    
+    @Setup(Level.Iteration)
+    public void setup() {
+        context = BenchmarkSimulation.start(INITIAL_GERMS);
+        context.getPool().setEnabled(pooled);
+        context.setGermLimit(2000);
+        
+        for (int i = 1; i < INITIAL_GERMS; i++) {
+            GermEntity germ = GermEntity.obtain(context);
+            germ.setPosition(context.getDish().getX(), context.getDish().getY());
+            context.getEntityManager().addEntity(germ);
+        }
+        
+        for (int i = 0; i < GROWTH_TICKS; i++) {
+            context.step(DELTA);
+        }
+    }
+    
+    @Benchmark
+    public void growth() {
+        context.setFood(1.0f);
+        context.step(DELTA);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.entities.GermEntity;
+import com.ray3k.superbug.entities.GermPopulation;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One tick of a {@link GermPopulation} at a steady population of the given
+ * size. The germ limit is set so splits balance deaths at that size, and the
+ * population is stepped for a full lifetime first so the timers are spread
+ * out like a grown population's. Divide the score by size for the cost per
+ * germ.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GermPopulationBenchmark {
+    private static final float DELTA = .01f;
+    @Param({"1000", "10000", "100000"})
+    public int size;
+    private SimulationContext context;
+    private GermPopulation population;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SimulationContext();
+        context.getRandom().setSeed(0);
+        context.setTemperature(.5f);
+        context.setFood(1.0f);
+        
+        //splits balance deaths when the split chance is the mean split time over the mean lifetime
+        float splitTime = GermEntity.SPLIT_TIME + context.getSplitTimeRandom() / 2.0f;
+        float lifetime = GermEntity.DEATH_TIME + context.getDeathTimeRandom() / 2.0f;
+        context.setGermLimit(size / (1.0f - splitTime / lifetime));
+        
+        population = new GermPopulation(context, size * 2);
+        population.setDishPosition(-150.0f, 0.0f);
+        for (int i = 0; i < size; i++) {
+            population.add(context.getRandom().spawn.random(-300.0f, 0.0f), context.getRandom().spawn.random(-150.0f, 150.0f));
+        }
+        
+        for (int i = 0; i * DELTA < lifetime * 2.0f; i++) {
+            population.act(DELTA);
+        }
+    }
+    
+    @Benchmark
+    public int act() {
+        population.act(DELTA);
+        return population.size();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.ray3k.superbug.entities.GermEntity;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+import com.ray3k.superbug.SimulationContext;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The per-tick immunity scans SimulationContext runs over every germ: the radiation,
+ * hot and cold kills and the population/resistance count. The kills remove
+ * germs, so the germs killed by one invocation are brought back with their
+ * immunities before the next and every scan sees the same population.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ImmunityScanBenchmark {
+    @Param({"100", "2000", "20000"})
+    public int size;
+    private SimulationContext context;
+    private final Array<GermEntity> germs = new Array<GermEntity>();
+    private final IntArray immunities = new IntArray();
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkSimulation.start(size);
+        context.setRadiation(100.0f);
+        context.setTemperature(1.0f);
+        
+        for (int i = 0; i < size; i++) {
+            GermEntity germ = new GermEntity(context);
+            for (int j = context.getRandom().mutation.random(3); j > 0; j--) {
+                germ.addImmunity(Immunity.VALUES[context.getRandom().mutation.nextInt(Immunity.COUNT)]);
+            }
+            context.getEntityManager().addEntity(germ);
+            germs.add(germ);
+            immunities.add(germ.getImmunities());
+        }
+    }
+    
+    @Setup(Level.Invocation)
+    public void revive() {
+        for (int i = 0; i < germs.size; i++) {
+            GermEntity germ = germs.get(i);
+            if (germ.isDestroyed()) {
+                germ.reset();
+                germ.setImmunities(immunities.get(i));
+                context.getGermIndex().add(germ);
+            }
+        }
+    }
+    
+    @Benchmark
+    public void applyEnvironment() {
+        context.applyEnvironment();
+    }
+    
+    @Benchmark
+    public void updateGermStatistics() {
+        context.updateGermStatistics();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.benchmarks;
+
+import com.ray3k.superbug.TimedEvent;
+import com.ray3k.superbug.TimingWheel;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One tick of three repeating timers per germ with the germs' periods, counted
+ * down every tick like germs used to, against the same timers on a
+ * {@link TimingWheel}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TimingWheelBenchmark {
+    private static final float DELTA = .01f;
+    private static final float[] PERIODS = {2.0f, 6.0f, 29.0f};
+    @Param({"2000", "20000"})
+    public int size;
+    private float[] timers;
+    private TimingWheel wheel;
+    private int fired;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(0);
+        timers = new float[size * PERIODS.length];
+        wheel = new TimingWheel(DELTA);
+        for (int i = 0; i < timers.length; i++) {
+            final float period = PERIODS[i % PERIODS.length];
+            timers[i] = random.nextFloat() * period;
+            
+            wheel.schedule(new TimedEvent() {
+                @Override
+                protected void fire() {
+                    fired++;
+                    wheel.schedule(this, period);
+                }
+            }, timers[i]);
+        }
+    }
+    
+    @Benchmark
+    public int countDown() {
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] -= DELTA;
+            if (timers[i] <= 0) {
+                timers[i] = PERIODS[i % PERIODS.length];
+                fired++;
+            }
+        }
+        return fired;
+    }
+    
+    @Benchmark
+    public int wheel() {
+        wheel.advance();
+        return fired;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+
+/**
+ * Decides how often a {@link SpineTwoColorEntity} updates its skeleton. Large
+ * populations, entities that are tiny on screen and entities that were culled
+ * in the last draw update every few ticks instead of every tick. Entities keep
+ * the skipped time and apply it on their next update, so animations play at
+ * the same speed.
+ */
+public class AnimationLod {
+    public static final int DEFAULT_POPULATION_THRESHOLD = 1000;
+    public static final int DEFAULT_REDUCED_INTERVAL = 4;
+    public static final int DEFAULT_CULLED_INTERVAL = 8;
+    public static final float DEFAULT_MIN_SCREEN_SIZE = 8.0f;
+    private int populationThreshold = DEFAULT_POPULATION_THRESHOLD;
+    private int reducedInterval = DEFAULT_REDUCED_INTERVAL;
+    private int culledInterval = DEFAULT_CULLED_INTERVAL;
+    private float minScreenSize = DEFAULT_MIN_SCREEN_SIZE;
+    private int population;
+    private float zoom = 1.0f;
+    
+    /**
+     * Called once per tick, before the entities act. The camera may be null
+     * when nothing is drawn.
+     */
+    public void update(int population, OrthographicCamera camera) {
+        this.population = population;
+        zoom = camera == null ? 1.0f : camera.zoom;
+    }
+    
+    /**
+     * Returns the number of ticks between skeleton updates for the entity.
+     */
+    public int getInterval(SpineTwoColorEntity entity) {
+        if (entity.isCulled()) {
+            return culledInterval;
+        } else if (population >= populationThreshold) {
+            return reducedInterval;
+        } else {
+            float radius = entity.getTemplate().getRenderRadius();
+            if (radius >= 0 && radius * 2.0f / zoom < minScreenSize) {
+                return reducedInterval;
+            }
+        }
+        return 1;
+    }
+
+    public int getPopulationThreshold() {
+        return populationThreshold;
+    }
+
+    public void setPopulationThreshold(int populationThreshold) {
+        this.populationThreshold = populationThreshold;
+    }
+
+    public int getReducedInterval() {
+        return reducedInterval;
+    }
+
+    public void setReducedInterval(int reducedInterval) {
+        this.reducedInterval = reducedInterval;
+    }
+
+    public int getCulledInterval() {
+        return culledInterval;
+    }
+
+    public void setCulledInterval(int culledInterval) {
+        this.culledInterval = culledInterval;
+    }
+
+    public float getMinScreenSize() {
+        return minScreenSize;
+    }
+
+    public void setMinScreenSize(float minScreenSize) {
+        this.minScreenSize = minScreenSize;
+    }
+}
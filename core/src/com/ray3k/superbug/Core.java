@@ -65,9 +65,13 @@ public class Core extends ApplicationAdapter {
     public static PixmapPacker pixmapPacker;
     public static ObjectMap<String, Array<String>> imagePacks;
     
-    private final static long MS_PER_UPDATE = 10;
+    public final static int DEFAULT_TICKS_PER_SECOND = 100;
+    public final static int DEFAULT_MAX_CATCH_UP_TICKS = 5;
+    private long nanosPerTick = 1000000000L / DEFAULT_TICKS_PER_SECOND;
+    private int maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
     private long previous;
     private long lag;
+    private boolean slowedDown;
     
     @Override
     public void create() {
@@ -82,7 +86,7 @@ public class Core extends ApplicationAdapter {
 
             loadAssets();
 
-            previous = TimeUtils.millis();
+            previous = TimeUtils.nanoTime();
             lag = 0;
 
             stateManager.loadState("loading");
@@ -140,17 +144,26 @@ public class Core extends ApplicationAdapter {
     @Override
     public void render() {
         try {
-            long current = TimeUtils.millis();
+            long current = TimeUtils.nanoTime();
             long elapsed = current - previous;
             previous = current;
             lag += elapsed;
 
-            while (lag >= MS_PER_UPDATE) {
-                stateManager.act(MS_PER_UPDATE / 1000.0f);
-                lag -= MS_PER_UPDATE;
+            int ticks = 0;
+            while (lag >= nanosPerTick && ticks < maxCatchUpTicks) {
+                stateManager.act(getTickDelta());
+                lag -= nanosPerTick;
+                ticks++;
+            }
+            
+            //drop whatever can't be caught up so slow ticks don't snowball
+            slowedDown = lag >= nanosPerTick;
+            if (slowedDown) {
+                lag %= nanosPerTick;
             }
 
-            stateManager.draw(spriteBatch, lag / MS_PER_UPDATE);
+            //states receive how far the clock is between the last tick and the next
+            stateManager.draw(spriteBatch, (float) lag / nanosPerTick);
         } catch (Exception e) {
             e.printStackTrace();
             
@@ -179,6 +192,40 @@ public class Core extends ApplicationAdapter {
         }
     }
 
+    public int getTickRate() {
+        return (int) (1000000000L / nanosPerTick);
+    }
+
+    public void setTickRate(int ticksPerSecond) {
+        nanosPerTick = 1000000000L / ticksPerSecond;
+    }
+    
+    /**
+     * Returns the fixed delta passed to every tick, in seconds.
+     */
+    public float getTickDelta() {
+        return nanosPerTick / 1000000000.0f;
+    }
+
+    public int getMaxCatchUpTicks() {
+        return maxCatchUpTicks;
+    }
+
+    /**
+     * Sets the most ticks run in one frame to catch up with the clock. Time
+     * beyond that is dropped and the game runs slower than real time.
+     */
+    public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    /**
+     * Returns true if the last frame couldn't run every tick it was due.
+     */
+    public boolean isSlowedDown() {
+        return slowedDown;
+    }
+
     @Override
     public void dispose() {
         assetManager.dispose();
@@ -226,6 +273,22 @@ public class Core extends ApplicationAdapter {
         }
     }
 
+    /**
+     * Loads only the skeleton data, without atlases, so the simulation can run
+     * without a GL context. Gdx.files must be available.
+     */
+    public static void loadHeadlessAssets() {
+        assetManager = new AssetManager(new LocalFileHandleResolver(), true);
+        assetManager.setLoader(SkeletonData.class, new SkeletonDataLoader(new LocalFileHandleResolver()));
+        
+        SkeletonDataLoaderParameter parameter = new SkeletonDataLoaderParameter(null);
+        FileHandle directory = Gdx.files.local(DATA_PATH + "/spine");
+        for (FileHandle jsonFile : directory.list("json")) {
+            assetManager.load(jsonFile.path(), SkeletonData.class, parameter);
+        }
+        assetManager.finishLoading();
+    }
+
     @Override
     public void resume() {
         
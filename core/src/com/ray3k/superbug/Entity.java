@@ -30,6 +30,7 @@ import com.badlogic.gdx.math.Vector2;
 public abstract class Entity {
     private static final Vector2 temp = new Vector2();
     private final Vector2 position;
+    private final Vector2 previousPosition;
     private final Vector2 speed;
     private boolean destroyed;
     private final Vector2 gravity;
@@ -38,19 +39,39 @@ public abstract class Entity {
     private final Vector2 collisionBoxPosition;
     private boolean checkingCollisions;
     private boolean persistent;
+    EntityManager entityManager;
+    boolean culled;
 
     public Entity() {
         position = new Vector2();
+        previousPosition = new Vector2();
         speed = new Vector2();
         gravity = new Vector2();
-        depth = 0;
-        destroyed = false;
         collisionBox = new Rectangle();
         collisionBoxPosition = new Vector2();
+        initialize();
+    }
+    
+    /**
+     * Restores the state of a newly constructed entity so it can be reused.
+     */
+    public void reset() {
+        initialize();
+    }
+    
+    private void initialize() {
+        position.set(0, 0);
+        previousPosition.set(0, 0);
+        speed.set(0, 0);
+        gravity.set(0, 0);
+        depth = 0;
+        destroyed = false;
+        collisionBox.set(0, 0, 0, 0);
         collisionBoxPosition.x = 0;
         collisionBoxPosition.y = 0;
         checkingCollisions = false;
         persistent = false;
+        culled = false;
     }
     
     public abstract void create();
@@ -71,6 +92,13 @@ public abstract class Entity {
             destroy();
         }
     }
+    
+    /**
+     * Called by the EntityManager after a destroyed entity has been taken out of
+     * its list. Nothing references the entity anymore, so it may be recycled.
+     */
+    public void removed() {
+    }
 
     public Vector2 getPosition() {
         return position.cpy();
@@ -181,6 +209,26 @@ public abstract class Entity {
         return gravity.y;
     }
     
+    /**
+     * Remembers the current position as the start of the next tick's
+     * movement. Called by the EntityManager.
+     */
+    public void storePreviousPosition() {
+        previousPosition.set(position);
+    }
+    
+    /**
+     * Returns the x position between the previous tick and the current one.
+     * @param alpha 0 for the previous tick's position, 1 for the current
+     */
+    public float getInterpolatedX(float alpha) {
+        return previousPosition.x + (position.x - previousPosition.x) * alpha;
+    }
+    
+    public float getInterpolatedY(float alpha) {
+        return previousPosition.y + (position.y - previousPosition.y) * alpha;
+    }
+    
     public Vector2 getGravity() {
         return gravity.cpy();
     }
@@ -190,7 +238,40 @@ public abstract class Entity {
     }
 
     public void setDepth(int depth) {
-        this.depth = depth;
+        if (this.depth != depth) {
+            this.depth = depth;
+            if (entityManager != null) {
+                entityManager.invalidateDepthOrder();
+            }
+        }
+    }
+
+    /**
+     * Sets bounds to the area the entity draws in and returns true, or returns
+     * false if the area is unknown and the entity should never be culled. Uses
+     * the collision box if it has been given a size.
+     */
+    public boolean getRenderBounds(Rectangle bounds) {
+        if (collisionBox.width > 0 || collisionBox.height > 0) {
+            bounds.set(collisionBox);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if the last draw skipped this entity for being out of view.
+     */
+    public boolean isCulled() {
+        return culled;
+    }
+
+    /**
+     * Returns false if the entity currently issues no draw calls, so
+     * {@link EntityManager} can skip it without counting it as drawn.
+     */
+    public boolean isDrawing() {
+        return true;
     }
 
     public Rectangle getCollisionBox() {
@@ -24,20 +24,76 @@
 
 package com.ray3k.superbug;
 
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
 import java.util.Comparator;
-import java.util.Iterator;
 
 public class EntityManager {
+    private static final Comparator<Entity> DEPTH_COMPARATOR = new Comparator<Entity>() {
+        @Override
+        public int compare(Entity o1, Entity o2) {
+            return o2.getDepth() - o1.getDepth();
+        }
+    };
     private final Array<Entity> entities;
+    private Broadphase broadphase;
+    private final IntArray candidates;
+    private long pairTests;
+    private ParallelUpdater parallelUpdater;
+    private final Array<Entity> parallelEntities;
+    private final Array<Entity> pendingEntities;
+    private final Array<Entity> removedEntities;
+    private boolean acting;
+    private boolean depthOrderValid;
+    private final Rectangle viewBounds;
+    private final Rectangle renderBounds;
+    private float cullMargin = DEFAULT_CULL_MARGIN;
+    public static final float DEFAULT_CULL_MARGIN = 16.0f;
+    private int drawnCount;
+    private int culledCount;
+    private final Array<EntityView<?>> views;
+    private final ObjectMap<Class<?>, EntityView<?>> viewsByType;
     
     public EntityManager() {
         entities = new Array<Entity>();
+        broadphase = new SpatialHashBroadphase();
+        candidates = new IntArray();
+        parallelEntities = new Array<Entity>();
+        pendingEntities = new Array<Entity>();
+        removedEntities = new Array<Entity>();
+        viewBounds = new Rectangle();
+        renderBounds = new Rectangle();
+        views = new Array<EntityView<?>>();
+        viewsByType = new ObjectMap<Class<?>, EntityView<?>>();
     }
     
+    /**
+     * Adds the entity and calls {@link Entity#create()}. Entities added during
+     * {@link #act(float)} are queued and appended once every entity has
+     * finished acting, so they first act on the next tick.
+     */
     public void addEntity(Entity entity) {
+        if (acting) {
+            pendingEntities.add(entity);
+        } else {
+            append(entity);
+        }
+    }
+    
+    private void append(Entity entity) {
+        if (entities.size > 0 && entity.getDepth() > entities.peek().getDepth()) {
+            depthOrderValid = false;
+        }
+        entity.entityManager = this;
+        entity.storePreviousPosition();
         entities.add(entity);
+        for (int i = 0; i < views.size; i++) {
+            views.get(i).offer(entity);
+        }
         entity.create();
     }
     
@@ -45,11 +101,34 @@ public class EntityManager {
         return new Array<Entity>(entities);
     }
     
+    /**
+     * Returns a live view of the entities that are instances of the given type.
+     * The first call for a type builds the view, after that it is kept up to
+     * date as entities are added and removed and no copies are made.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Entity> EntityView<T> getEntities(Class<T> type) {
+        EntityView<T> view = (EntityView<T>) viewsByType.get(type);
+        if (view == null) {
+            view = new EntityView<T>(type);
+            for (int i = 0; i < entities.size; i++) {
+                view.offer(entities.get(i));
+            }
+            views.add(view);
+            viewsByType.put(type, view);
+        }
+        return view;
+    }
+    
     public void act(float delta) {
-        Iterator<Entity> iter = entities.iterator();
-        while (iter.hasNext()) {
-            Entity entity = iter.next();
+        removeDestroyed();
+        
+        acting = true;
+        int size = entities.size;
+        for (int i = 0; i < size; i++) {
+            Entity entity = entities.get(i);
             if (!entity.isDestroyed()) {
+                entity.storePreviousPosition();
                 entity.addXspeed(entity.getGravityX() * delta);
                 entity.addYspeed(entity.getGravityY() * delta);
                 
@@ -57,60 +136,252 @@ public class EntityManager {
                 entity.addY(entity.getYspeed() * delta);
                 
                 entity.getCollisionBox().setPosition(entity.getX() + entity.getCollisionBoxX(), entity.getY() + entity.getCollisionBoxY());
-                entity.act(delta);
-                
-                for (int i = 0; i < entities.size ; i++) {
-                    if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
-                        Entity other = entities.get(i);
-                        if (other.isCheckingCollisions()) {
-                            if (entity.getCollisionBox().overlaps(other.getCollisionBox())) {
-                                entity.collision(other);
-                            }
-                        }
-                    } else {
-                        break;
-                    }
+                if (parallelUpdater != null && parallelUpdater.isParallel(entity)) {
+                    parallelEntities.add(entity);
+                } else {
+                    entity.act(delta);
                 }
+            }
+        }
+        
+        if (parallelEntities.size > 0) {
+            parallelUpdater.act(parallelEntities, delta);
+            parallelEntities.clear();
+        }
+        
+        checkCollisions();
+        
+        for (int i = 0; i < size; i++) {
+            entities.get(i).actEnd(delta);
+        }
+        acting = false;
+        
+        addPending();
+    }
+    
+    /**
+     * Removes every destroyed entity in one pass, keeping the order of the
+     * rest, and calls {@link Entity#removed()} on each once they are out of
+     * every view.
+     */
+    void removeDestroyed() {
+        int kept = 0;
+        for (int i = 0; i < entities.size; i++) {
+            Entity entity = entities.get(i);
+            if (entity.isDestroyed()) {
+                removedEntities.add(entity);
             } else {
-                iter.remove();
+                if (kept != i) {
+                    entities.set(kept, entity);
+                }
+                kept++;
             }
         }
         
-        iter = entities.iterator();
-        while (iter.hasNext()) {
-            Entity entity = iter.next();
+        if (removedEntities.size > 0) {
+            entities.truncate(kept);
+            for (int i = 0; i < views.size; i++) {
+                views.get(i).removeDestroyed();
+            }
             
-            entity.actEnd(delta);
+            for (int i = 0; i < removedEntities.size; i++) {
+                Entity entity = removedEntities.get(i);
+                entity.entityManager = null;
+                entity.removed();
+            }
+            removedEntities.clear();
         }
     }
     
-    public void draw(SpriteBatch spriteBatch, float delta) {
-        entities.sort(new Comparator<Entity>() {
-            @Override
-            public int compare(Entity o1, Entity o2) {
-                return o2.getDepth() - o1.getDepth();
+    private void addPending() {
+        for (int i = 0; i < pendingEntities.size; i++) {
+            Entity entity = pendingEntities.get(i);
+            if (entity.isDestroyed()) {
+                entity.removed();
+            } else {
+                append(entity);
             }
-        });
+        }
+        pendingEntities.clear();
+    }
+    
+    /**
+     * Reports every overlapping pair once all entities have moved and acted
+     * this tick. Before the broadphase, each entity was checked right after
+     * its own act, against entities that had not all moved yet. Checking in
+     * one pass afterwards tests every pair against the same positions and
+     * also covers entities updated by the {@link ParallelUpdater}. An entity
+     * destroyed by an earlier collision in the pass gets no further calls.
+     */
+    private void checkCollisions() {
+        int size = entities.size;
+        broadphase.update(entities);
         
-        for (Entity entity : entities) {
+        for (int i = 0; i < size; i++) {
+            Entity entity = entities.get(i);
+            if (entity.isDestroyed() || !entity.isCheckingCollisions()) {
+                continue;
+            }
+            
+            broadphase.query(i, candidates);
+            for (int j = 0; j < candidates.size; j++) {
+                if (!entity.isDestroyed() && entity.isCheckingCollisions()) {
+                    Entity other = entities.get(candidates.get(j));
+                    if (other.isCheckingCollisions()) {
+                        pairTests++;
+                        if (entity.getCollisionBox().overlaps(other.getCollisionBox())) {
+                            entity.collision(other);
+                        }
+                    }
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Draws every entity, each at alpha of the way from its previous to its
+     * current position.
+     */
+    public void draw(SpriteBatch spriteBatch, float alpha) {
+        draw(spriteBatch, alpha, null);
+    }
+    
+    /**
+     * Skips entities whose render bounds are outside the camera's view
+     * expanded by the cull margin, and draws the rest at alpha of the way
+     * from their previous to their current positions. Entities without render
+     * bounds or with a null camera are never culled.
+     */
+    public void draw(SpriteBatch spriteBatch, float alpha, OrthographicCamera camera) {
+        if (!depthOrderValid) {
+            sortByDepth();
+        }
+        
+        if (camera != null) {
+            float width = camera.viewportWidth * camera.zoom + 2 * cullMargin;
+            float height = camera.viewportHeight * camera.zoom + 2 * cullMargin;
+            viewBounds.set(camera.position.x - width / 2, camera.position.y - height / 2, width, height);
+        }
+        
+        drawnCount = 0;
+        culledCount = 0;
+        for (int i = 0; i < entities.size; i++) {
+            Entity entity = entities.get(i);
             if (!entity.isDestroyed()) {
-                entity.draw(spriteBatch, delta);
+                if (camera != null && entity.getRenderBounds(renderBounds) && !viewBounds.overlaps(renderBounds)) {
+                    entity.culled = true;
+                    culledCount++;
+                } else {
+                    entity.culled = false;
+                    if (entity.isDrawing()) {
+                        entity.draw(spriteBatch, alpha);
+                        drawnCount++;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Called when an entity's depth changes so the next draw sorts again.
+     */
+    void invalidateDepthOrder() {
+        depthOrderValid = false;
+    }
+    
+    /**
+     * Stable sort from the deepest entity to the shallowest. The entities are
+     * only out of order after a depth change or after appending an entity
+     * deeper than the last one, so most frames skip this.
+     */
+    private void sortByDepth() {
+        entities.sort(DEPTH_COMPARATOR);
+        for (int i = 0; i < views.size; i++) {
+            EntityView<?> view = views.get(i);
+            view.clear();
+            for (int j = 0; j < entities.size; j++) {
+                view.offer(entities.get(j));
             }
         }
+        depthOrderValid = true;
     }
     
+    /**
+     * Disposes every entity, including ones queued by {@link #addEntity(Entity)}
+     * during the current act. Persistent entities are kept unless
+     * clearPersistent is true.
+     */
     public void clear(boolean clearPersistent) {
-        Iterator<Entity> iter = getEntities().iterator();
+        for (int i = 0; i < entities.size; i++) {
+            Entity entity = entities.get(i);
+            if (clearPersistent || !entity.isPersistent()) {
+                entity.dispose();
+            }
+        }
         
-        while(iter.hasNext()) {
-            Entity entity = iter.next();
+        int kept = 0;
+        for (int i = 0; i < pendingEntities.size; i++) {
+            Entity entity = pendingEntities.get(i);
             if (clearPersistent || !entity.isPersistent()) {
                 entity.dispose();
+                entity.removed();
+            } else {
+                pendingEntities.set(kept++, entity);
             }
         }
+        pendingEntities.truncate(kept);
     }
     
     public void clear() {
         clear(false);
     }
+
+    public Broadphase getBroadphase() {
+        return broadphase;
+    }
+
+    public void setBroadphase(Broadphase broadphase) {
+        this.broadphase = broadphase;
+    }
+
+    public ParallelUpdater getParallelUpdater() {
+        return parallelUpdater;
+    }
+
+    public void setParallelUpdater(ParallelUpdater parallelUpdater) {
+        this.parallelUpdater = parallelUpdater;
+    }
+
+    public float getCullMargin() {
+        return cullMargin;
+    }
+
+    public void setCullMargin(float cullMargin) {
+        this.cullMargin = cullMargin;
+    }
+
+    /**
+     * Returns how many entities the last draw call drew.
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    /**
+     * Returns how many entities the last draw call skipped for being out of
+     * view.
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    public long getPairTests() {
+        return pairTests;
+    }
+    
+    public void resetPairTests() {
+        pairTests = 0;
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Live, read-only list of the entities in an EntityManager that are instances
+ * of a type, in the same order as the manager. It is updated only where the
+ * manager applies its queued changes, so it can be iterated by index while
+ * entities are being added or disposed. Destroyed entities stay in the view
+ * until the manager removes them.
+ */
+public class EntityView<T extends Entity> {
+    private final Class<T> type;
+    private final Array<T> entities;
+
+    EntityView(Class<T> type) {
+        this.type = type;
+        entities = new Array<T>();
+    }
+    
+    void offer(Entity entity) {
+        if (type.isInstance(entity)) {
+            entities.add(type.cast(entity));
+        }
+    }
+    
+    void removeDestroyed() {
+        int kept = 0;
+        for (int i = 0; i < entities.size; i++) {
+            T entity = entities.get(i);
+            if (!entity.isDestroyed()) {
+                if (kept != i) {
+                    entities.set(kept, entity);
+                }
+                kept++;
+            }
+        }
+        entities.truncate(kept);
+    }
+    
+    void clear() {
+        entities.clear();
+    }
+    
+    public T get(int index) {
+        return entities.get(index);
+    }
+    
+    public int size() {
+        return entities.size;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.AnimationStateData;
+
+/**
+ * Default mix plus any specific mixes between animations. Entities that use
+ * the same profile and skeleton data share one AnimationStateData, so a profile
+ * must not be changed once it has been used.
+ */
+public class MixProfile {
+    public static final MixProfile DEFAULT = new MixProfile(.25f);
+    private final float defaultMix;
+    private final Array<String> froms;
+    private final Array<String> tos;
+    private final FloatArray durations;
+
+    public MixProfile(float defaultMix) {
+        this.defaultMix = defaultMix;
+        froms = new Array<String>();
+        tos = new Array<String>();
+        durations = new FloatArray();
+    }
+    
+    public void addMix(String from, String to, float duration) {
+        froms.add(from);
+        tos.add(to);
+        durations.add(duration);
+    }
+    
+    public void apply(AnimationStateData animationStateData) {
+        animationStateData.setDefaultMix(defaultMix);
+        for (int i = 0; i < froms.size; i++) {
+            animationStateData.setMix(froms.get(i), tos.get(i), durations.get(i));
+        }
+    }
+
+    public float getDefaultMix() {
+        return defaultMix;
+    }
+}
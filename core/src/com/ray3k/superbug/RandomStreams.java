@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+/**
+ * The random streams used by one simulation. Each stream is derived from the
+ * seed on its own, so drawing more numbers for movement never shifts the
+ * sequence used for spawning, mutation or treatments.
+ */
+public class RandomStreams {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private long seed;
+    public final SimulationRandom spawn;
+    public final SimulationRandom mutation;
+    public final SimulationRandom movement;
+    public final SimulationRandom treatment;
+
+    public RandomStreams(long seed) {
+        spawn = new SimulationRandom(0);
+        mutation = new SimulationRandom(0);
+        movement = new SimulationRandom(0);
+        treatment = new SimulationRandom(0);
+        setSeed(seed);
+    }
+    
+    public void setSeed(long seed) {
+        this.seed = seed;
+        spawn.setSeed(SimulationRandom.mix(seed + GOLDEN_GAMMA));
+        mutation.setSeed(SimulationRandom.mix(seed + GOLDEN_GAMMA * 2));
+        movement.setSeed(SimulationRandom.mix(seed + GOLDEN_GAMMA * 3));
+        treatment.setSeed(SimulationRandom.mix(seed + GOLDEN_GAMMA * 4));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.MathUtils;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.ray3k.superbug.entities.DishEntity;
+import com.ray3k.superbug.entities.GermAggregate;
+import com.ray3k.superbug.entities.GermEntity;
+import com.ray3k.superbug.entities.GermFrames;
+import com.ray3k.superbug.entities.GermHeatmap;
+import com.ray3k.superbug.entities.GermIndex;
+import com.ray3k.superbug.entities.GermPool;
+import com.ray3k.superbug.entities.GermPoseCache;
+import com.ray3k.superbug.entities.GermRenderMode;
+import com.ray3k.superbug.entities.GermStatistics;
+import com.ray3k.superbug.entities.GermWorker;
+
+/**
+ * Everything one dish's simulation reads and writes: its entities, random
+ * streams, germ pool and index, the environment and the resources its germs
+ * draw with. Entities receive the context when they are created, so any number
+ * of contexts can be stepped at once on different threads as long as each one
+ * is only stepped by one thread at a time. Nothing here needs a GL context
+ * unless the render resources are set.
+ */
+public class SimulationContext {
+    private EntityManager entityManager;
+    private ParallelUpdater parallelUpdater;
+    private DishEntity dish;
+    private final RandomStreams random;
+    private GermIndex germIndex;
+    private final GermPool pool;
+    private final GermWorker sequentialWorker;
+    private final AnimationLod animationLod;
+    private final GermAggregate aggregate;
+    private TimingWheel timingWheel;
+    private OrthographicCamera camera;
+    private TwoColorPolygonBatch twoColorPolygonBatch;
+    private GermFrames germFrames;
+    private GermHeatmap germHeatmap;
+    private GermPoseCache germPoseCache;
+    private volatile GermRenderMode germRenderMode = GermRenderMode.SKELETON;
+    private float food;
+    private float germLimit = 2000;
+    private float mutationChance = GermEntity.MUTATION_CHANCE;
+    private float splitTimeRandom = GermEntity.SPLIT_TIME_RANDOM;
+    private float deathTimeRandom = GermEntity.DEATH_TIME_RANDOM;
+    private int germCount;
+    private float temperature;
+    private float radiation;
+    private float time;
+    private int maxImmunities;
+    private boolean checkingStatistics;
+
+    public SimulationContext() {
+        random = new RandomStreams(0);
+        pool = new GermPool(this);
+        sequentialWorker = new GermWorker(this);
+        animationLod = new AnimationLod();
+        aggregate = new GermAggregate(this);
+        timingWheel = new TimingWheel(1.0f / Core.DEFAULT_TICKS_PER_SECOND);
+    }
+    
+    /**
+     * Creates the dish and the first germ. This is all that is needed to call
+     * {@link #step(float)}. Two contexts started with the same seed and given
+     * the same inputs produce the same populations.
+     */
+    public void start(long seed) {
+        start(seed, null);
+    }
+    
+    /**
+     * Same as {@link #start(long)}, but the dish is added to the given entity
+     * manager instead of the simulation's, for when another thread owns it.
+     */
+    public void start(long seed, EntityManager dishEntityManager) {
+        random.setSeed(seed);
+        temperature = .5f;
+        food = 1.0f;
+        germCount = 0;
+        radiation = 0.0f;
+        maxImmunities = 0;
+        time = 0.0f;
+        
+        entityManager = new EntityManager();
+        entityManager.setParallelUpdater(parallelUpdater);
+        germIndex = new GermIndex();
+        timingWheel = new TimingWheel(timingWheel.getTickDuration());
+        
+        dish = new DishEntity(this);
+        dish.setPosition(-150.0f, 0.0f);
+        if (dishEntityManager == null) {
+            entityManager.addEntity(dish);
+        } else {
+            dishEntityManager.addEntity(dish);
+        }
+        
+        GermEntity germ = GermEntity.obtain(this);
+        entityManager.addEntity(germ);
+    }
+    
+    /**
+     * Steps the germs, treatments and food by one tick. Timed events such as
+     * germ splits and deaths fire after the entities act.
+     */
+    public void step(float delta) {
+        time += delta;
+        timingWheel.setTickDuration(delta);
+        
+        applyEnvironment();
+        
+        food -= .01f * delta;
+        food = MathUtils.clamp(food, 0.0f, 1.0f);
+        
+        updateGermStatistics();
+        animationLod.update(germCount, camera);
+        
+        entityManager.act(delta);
+        timingWheel.advance();
+    }
+    
+    /**
+     * Advances the simulation by about the given number of seconds on the
+     * aggregate model instead of germ by germ. The germs are collapsed into
+     * counts by immunity mask and age, stepped in whole leaps of the
+     * aggregate's tau with the same environment and food decay as
+     * {@link #step(float)}, then recreated at random positions in the dish.
+     * Call between steps.
+     */
+    public void fastForward(float seconds) {
+        aggregate.collapse(entityManager.getEntities(GermEntity.class));
+        //return the collapsed germs to the pool so materialize reuses them
+        entityManager.removeDestroyed();
+        
+        float tau = aggregate.getTau();
+        int leaps = Math.round(seconds / tau);
+        for (int i = 0; i < leaps; i++) {
+            time += tau;
+            
+            aggregate.applyEnvironment();
+            
+            food -= .01f * tau;
+            food = MathUtils.clamp(food, 0.0f, 1.0f);
+            
+            aggregate.leap();
+        }
+        
+        germCount = aggregate.size();
+        maxImmunities = aggregate.getMaxImmunities();
+        aggregate.materialize();
+    }
+    
+    /**
+     * Kills most of the germs that aren't immune to the treatment, the same as
+     * pressing its button.
+     */
+    public void treat(GermEntity.Immunity immunity) {
+        germIndex.kill(immunity, .75f, .05f, random.treatment);
+    }
+    
+    /**
+     * Kills germs that aren't immune to the current radiation and temperature.
+     */
+    public void applyEnvironment() {
+        if (radiation > 75.0f) {
+            germIndex.kill(GermEntity.Immunity.RADIATION, .01f, 0.0f, random.treatment);
+        }
+        
+        if (temperature > .75f) {
+            germIndex.kill(GermEntity.Immunity.HOT, .01f, 0.0f, random.treatment);
+        }
+        
+        if (temperature < .25f) {
+            germIndex.kill(GermEntity.Immunity.COLD, .01f, 0.0f, random.treatment);
+        }
+    }
+    
+    /**
+     * Copies the population statistics kept by the germ index into the values
+     * read during the tick. With the consistency check on, they are also
+     * compared against a full scan of the entities.
+     */
+    public void updateGermStatistics() {
+        GermStatistics statistics = germIndex.getStatistics();
+        if (checkingStatistics) {
+            statistics.check(entityManager.getEntities(GermEntity.class));
+        }
+        
+        germCount = statistics.getCount();
+        maxImmunities = statistics.getMaxImmunities();
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public ParallelUpdater getParallelUpdater() {
+        return parallelUpdater;
+    }
+
+    /**
+     * Sets the updater used by the entity manager, now and after every
+     * {@link #start(long)}.
+     */
+    public void setParallelUpdater(ParallelUpdater parallelUpdater) {
+        this.parallelUpdater = parallelUpdater;
+        if (entityManager != null) {
+            entityManager.setParallelUpdater(parallelUpdater);
+        }
+    }
+
+    public DishEntity getDish() {
+        return dish;
+    }
+
+    public RandomStreams getRandom() {
+        return random;
+    }
+
+    public GermIndex getGermIndex() {
+        return germIndex;
+    }
+
+    public GermPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Returns the worker germs use when they are updated on the simulation's
+     * own thread.
+     */
+    public GermWorker getSequentialWorker() {
+        return sequentialWorker;
+    }
+
+    /**
+     * Returns the scheduler for the simulation's timed events, one wheel tick
+     * per step.
+     */
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    /**
+     * Returns the aggregate model used by {@link #fastForward(float)}.
+     */
+    public GermAggregate getAggregate() {
+        return aggregate;
+    }
+
+    public AnimationLod getAnimationLod() {
+        return animationLod;
+    }
+
+    public OrthographicCamera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Sets the camera the animation level of detail is measured against. Null
+     * when nothing is drawn or the camera belongs to another thread.
+     */
+    public void setCamera(OrthographicCamera camera) {
+        this.camera = camera;
+    }
+
+    public TwoColorPolygonBatch getTwoColorPolygonBatch() {
+        return twoColorPolygonBatch;
+    }
+
+    public void setTwoColorPolygonBatch(TwoColorPolygonBatch twoColorPolygonBatch) {
+        this.twoColorPolygonBatch = twoColorPolygonBatch;
+    }
+
+    public GermFrames getGermFrames() {
+        return germFrames;
+    }
+
+    public void setGermFrames(GermFrames germFrames) {
+        this.germFrames = germFrames;
+    }
+
+    public GermHeatmap getGermHeatmap() {
+        return germHeatmap;
+    }
+
+    public void setGermHeatmap(GermHeatmap germHeatmap) {
+        this.germHeatmap = germHeatmap;
+    }
+
+    public GermPoseCache getGermPoseCache() {
+        return germPoseCache;
+    }
+
+    public void setGermPoseCache(GermPoseCache germPoseCache) {
+        this.germPoseCache = germPoseCache;
+    }
+
+    public GermRenderMode getGermRenderMode() {
+        return germRenderMode;
+    }
+
+    public void setGermRenderMode(GermRenderMode germRenderMode) {
+        this.germRenderMode = germRenderMode;
+    }
+
+    public float getFood() {
+        return food;
+    }
+
+    public void setFood(float food) {
+        this.food = food;
+    }
+
+    public float getGermLimit() {
+        return germLimit;
+    }
+
+    public void setGermLimit(float germLimit) {
+        this.germLimit = germLimit;
+    }
+
+    public float getMutationChance() {
+        return mutationChance;
+    }
+
+    /**
+     * Sets the chance that a split germ changes skin and gains a random
+     * immunity.
+     */
+    public void setMutationChance(float mutationChance) {
+        this.mutationChance = mutationChance;
+    }
+
+    public float getSplitTimeRandom() {
+        return splitTimeRandom;
+    }
+
+    /**
+     * Sets the most random time added to a germ's split time.
+     */
+    public void setSplitTimeRandom(float splitTimeRandom) {
+        this.splitTimeRandom = splitTimeRandom;
+    }
+
+    public float getDeathTimeRandom() {
+        return deathTimeRandom;
+    }
+
+    /**
+     * Sets the most random time added to a germ's death time.
+     */
+    public void setDeathTimeRandom(float deathTimeRandom) {
+        this.deathTimeRandom = deathTimeRandom;
+    }
+
+    /**
+     * Returns the population counted at the start of the current tick.
+     */
+    public int getGermCount() {
+        return germCount;
+    }
+
+    public void setGermCount(int germCount) {
+        this.germCount = germCount;
+    }
+
+    public float getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(float temperature) {
+        this.temperature = temperature;
+    }
+
+    public float getRadiation() {
+        return radiation;
+    }
+
+    public void setRadiation(float radiation) {
+        this.radiation = radiation;
+    }
+
+    public float getTime() {
+        return time;
+    }
+
+    public int getMaxImmunities() {
+        return maxImmunities;
+    }
+
+    public boolean isCheckingStatistics() {
+        return checkingStatistics;
+    }
+
+    public void setCheckingStatistics(boolean checkingStatistics) {
+        this.checkingStatistics = checkingStatistics;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * Seedable random number generator with the same helpers as MathUtils. None of
+ * the methods allocate, so it is safe to use in the per-tick loops.
+ */
+public class SimulationRandom extends RandomXS128 {
+    private static final long serialVersionUID = 1L;
+    private static final float POISSON_NORMAL_MEAN = 30.0f;
+    
+    public SimulationRandom(long seed) {
+        super(seed);
+    }
+    
+    /** Returns a random number between start (inclusive) and end (inclusive). */
+    public int random(int start, int end) {
+        return start + nextInt(end - start + 1);
+    }
+    
+    /** Returns a random number between 0 (inclusive) and the specified value (inclusive). */
+    public int random(int range) {
+        return nextInt(range + 1);
+    }
+    
+    /** Returns a random number between 0 (inclusive) and the specified value (exclusive). */
+    public float random(float range) {
+        return nextFloat() * range;
+    }
+    
+    /** Returns a random number between start (inclusive) and end (exclusive). */
+    public float random(float start, float end) {
+        return start + nextFloat() * (end - start);
+    }
+    
+    /** Returns true if a random value between 0 and 1 is less than the specified value. */
+    public boolean randomBoolean(float chance) {
+        return nextFloat() < chance;
+    }
+    
+    /**
+     * Returns how many of n trials succeed with the given chance. Counts the
+     * geometric gaps between successes (or failures, whichever is rarer), so
+     * it costs about min(n * chance, n * (1 - chance)) draws.
+     */
+    public int binomial(int n, float chance) {
+        if (n <= 0 || chance <= 0.0f) {
+            return 0;
+        } else if (chance >= 1.0f) {
+            return n;
+        } else if (chance > .5f) {
+            return n - binomial(n, 1.0f - chance);
+        }
+        
+        double logFailure = Math.log(1.0 - chance);
+        int count = 0;
+        double trials = 0;
+        while (true) {
+            trials += Math.floor(Math.log(1.0 - nextDouble()) / logFailure) + 1;
+            if (trials > n) {
+                return count;
+            }
+            count++;
+        }
+    }
+    
+    /**
+     * Returns a Poisson distributed count with the given mean. Small means
+     * multiply uniform draws until they fall below e^-mean, which costs about
+     * mean draws, so large means use the normal approximation instead.
+     */
+    public int poisson(float mean) {
+        if (mean <= 0.0f) {
+            return 0;
+        } else if (mean >= POISSON_NORMAL_MEAN) {
+            return Math.max(0, (int) Math.round(mean + Math.sqrt(mean) * nextGaussian()));
+        }
+        
+        double limit = Math.exp(-mean);
+        double product = nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= nextDouble();
+            count++;
+        }
+        return count;
+    }
+    
+    /** SplitMix64 finalizer, spreads nearby seeds over the whole state space. */
+    public static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
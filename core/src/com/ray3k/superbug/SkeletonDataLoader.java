@@ -36,6 +36,8 @@ import com.badlogic.gdx.utils.Array;
 import com.esotericsoftware.spine.SkeletonBinary;
 import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.SkeletonJson;
+import com.esotericsoftware.spine.attachments.AtlasAttachmentLoader;
+import com.esotericsoftware.spine.attachments.AttachmentLoader;
 
 /** {@link AssetLoader} for {@link SkeletonData} instances. 
  * Loads an exported Spine's skeleton data.
@@ -43,6 +45,8 @@ import com.esotericsoftware.spine.SkeletonJson;
  * in the  {@link AssetManager#load(String, Class, AssetLoaderParameters)} call.
  * Supports both binary and JSON skeleton format files. If the animation file name has a 'skel' extension,
  * it will be loaded as binary. Any other extension will be assumed as JSON.
+ * If the atlas name is null, no atlas is loaded and attachments are created without texture regions.
+ * This is used by the headless simulation, which has no GL context.
  *
  * Example: suppose you have 'data/spine/character.atlas', 'data/spine/character.png' and 'data/spine/character.skel'.
  * To load it with an asset manager, just do the following:
@@ -65,15 +69,20 @@ public class SkeletonDataLoader extends AsynchronousAssetLoader<SkeletonData, Sk
 	@Override
 	public void loadAsync( AssetManager manager, String fileName, FileHandle file, SkeletonDataLoaderParameter parameter) {
 		skeletonData = null;
-		TextureAtlas atlas = manager.get(parameter.atlasName, TextureAtlas.class);
+		AttachmentLoader attachmentLoader;
+		if (parameter.atlasName != null) {
+			attachmentLoader = new AtlasAttachmentLoader(manager.get(parameter.atlasName, TextureAtlas.class));
+		} else {
+			attachmentLoader = new HeadlessAttachmentLoader();
+		}
 		
 		String extension = file.extension();
 		if (extension.toLowerCase().equals("skel")) {
-			SkeletonBinary skeletonBinary = new SkeletonBinary(atlas);
+			SkeletonBinary skeletonBinary = new SkeletonBinary(attachmentLoader);
 			skeletonBinary.setScale(parameter.scale);
 			skeletonData = skeletonBinary.readSkeletonData(file);
 		} else {
-			SkeletonJson skeletonJson = new SkeletonJson(atlas);
+			SkeletonJson skeletonJson = new SkeletonJson(attachmentLoader);
 			skeletonJson.setScale(parameter.scale);
 			skeletonData = skeletonJson.readSkeletonData(file);			
 		}
@@ -88,7 +97,9 @@ public class SkeletonDataLoader extends AsynchronousAssetLoader<SkeletonData, Sk
 	@Override
 	public Array<AssetDescriptor> getDependencies( String fileName, FileHandle file, SkeletonDataLoaderParameter parameter) {
 		Array<AssetDescriptor> deps = new Array<AssetDescriptor>();
-		deps.add(new AssetDescriptor(parameter.atlasName, TextureAtlas.class));
+		if (parameter.atlasName != null) {
+			deps.add(new AssetDescriptor(parameter.atlasName, TextureAtlas.class));
+		}
 		return deps;
 	}
 	
@@ -97,7 +108,7 @@ public class SkeletonDataLoader extends AsynchronousAssetLoader<SkeletonData, Sk
 	 * This will insure the skeleton data is loaded correctly
      * @author mzechner */
     static public class SkeletonDataLoaderParameter extends AssetLoaderParameters<SkeletonData> {
-    	// A SkeletonJson must be loaded from an atlas.
+    	// A SkeletonJson must be loaded from an atlas, unless running headless.
     	public String atlasName;
     	public float  scale;
     	
@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonBounds;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.Skin;
+
+/**
+ * Per SkeletonData cache of everything entities would otherwise build or look
+ * up by name every time they are created: shared AnimationStateData for each
+ * {@link MixProfile}, skins, bone indices and animations.
+ */
+public class SkeletonTemplate {
+    private static final ObjectMap<SkeletonData, SkeletonTemplate> templates = new ObjectMap<SkeletonData, SkeletonTemplate>();
+    private final SkeletonData skeletonData;
+    private final ObjectMap<MixProfile, AnimationStateData> animationStateDatas;
+    private final ObjectMap<String, Skin[]> numberedSkins;
+    private final ObjectIntMap<String> boneIndices;
+    private final ObjectMap<String, Animation> animations;
+    private final float renderRadius;
+
+    private SkeletonTemplate(SkeletonData skeletonData) {
+        this.skeletonData = skeletonData;
+        animationStateDatas = new ObjectMap<MixProfile, AnimationStateData>();
+        numberedSkins = new ObjectMap<String, Skin[]>();
+        
+        boneIndices = new ObjectIntMap<String>();
+        for (int i = 0; i < skeletonData.getBones().size; i++) {
+            boneIndices.put(skeletonData.getBones().get(i).getName(), i);
+        }
+        
+        animations = new ObjectMap<String, Animation>();
+        for (Animation animation : skeletonData.getAnimations()) {
+            animations.put(animation.getName(), animation);
+        }
+        
+        renderRadius = computeRenderRadius(skeletonData);
+    }
+    
+    public static synchronized SkeletonTemplate get(SkeletonData skeletonData) {
+        SkeletonTemplate template = templates.get(skeletonData);
+        if (template == null) {
+            template = new SkeletonTemplate(skeletonData);
+            templates.put(skeletonData, template);
+        }
+        return template;
+    }
+    
+    /**
+     * Returns the AnimationStateData shared by every entity using this skeleton
+     * data and profile. It can't be modified, change the profile instead.
+     */
+    public synchronized AnimationStateData getAnimationStateData(MixProfile profile) {
+        AnimationStateData animationStateData = animationStateDatas.get(profile);
+        if (animationStateData == null) {
+            SharedAnimationStateData shared = new SharedAnimationStateData(skeletonData);
+            profile.apply(shared);
+            shared.locked = true;
+            animationStateData = shared;
+            animationStateDatas.put(profile, animationStateData);
+        }
+        return animationStateData;
+    }
+    
+    /**
+     * Returns skins named prefix + number, indexed by number. Missing numbers
+     * are null.
+     */
+    public synchronized Skin[] getNumberedSkins(String prefix) {
+        Skin[] skins = numberedSkins.get(prefix);
+        if (skins == null) {
+            int max = 0;
+            for (Skin skin : skeletonData.getSkins()) {
+                int number = parseNumber(skin.getName(), prefix);
+                if (number > max) {
+                    max = number;
+                }
+            }
+            
+            skins = new Skin[max + 1];
+            for (Skin skin : skeletonData.getSkins()) {
+                int number = parseNumber(skin.getName(), prefix);
+                if (number >= 0) {
+                    skins[number] = skin;
+                }
+            }
+            numberedSkins.put(prefix, skins);
+        }
+        return skins;
+    }
+    
+    private int parseNumber(String name, String prefix) {
+        if (name.length() > prefix.length() && name.startsWith(prefix)) {
+            try {
+                return Integer.parseInt(name.substring(prefix.length()));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+    
+    public int findBoneIndex(String name) {
+        return boneIndices.get(name, -1);
+    }
+    
+    public Animation findAnimation(String name) {
+        return animations.get(name);
+    }
+
+    /**
+     * Returns the distance from the skeleton's origin to the farthest corner of
+     * its bounding box attachments in the setup pose, or -1 if it has none.
+     * This bounds the skeleton at any rotation without updating SkeletonBounds.
+     */
+    public float getRenderRadius() {
+        return renderRadius;
+    }
+    
+    private static float computeRenderRadius(SkeletonData skeletonData) {
+        Skeleton skeleton = new Skeleton(skeletonData);
+        skeleton.updateWorldTransform();
+        SkeletonBounds bounds = new SkeletonBounds();
+        bounds.update(skeleton, true);
+        
+        if (bounds.getPolygons().size > 0) {
+            float x = Math.max(Math.abs(bounds.getMinX()), Math.abs(bounds.getMaxX()));
+            float y = Math.max(Math.abs(bounds.getMinY()), Math.abs(bounds.getMaxY()));
+            return (float) Math.sqrt(x * x + y * y);
+        } else {
+            return -1.0f;
+        }
+    }
+
+    public SkeletonData getSkeletonData() {
+        return skeletonData;
+    }
+    
+    private static class SharedAnimationStateData extends AnimationStateData {
+        private boolean locked;
+
+        public SharedAnimationStateData(SkeletonData skeletonData) {
+            super(skeletonData);
+        }
+
+        @Override
+        public void setDefaultMix(float defaultMix) {
+            if (locked) {
+                throw new IllegalStateException("Shared AnimationStateData can't be modified. Use a MixProfile.");
+            }
+            super.setDefaultMix(defaultMix);
+        }
+
+        @Override
+        public void setMix(Animation from, Animation to, float duration) {
+            if (locked) {
+                throw new IllegalStateException("Shared AnimationStateData can't be modified. Use a MixProfile.");
+            }
+            super.setMix(from, to, duration);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Uniform grid stored in a hash table. Every colliding entity is inserted into
+ * each cell its collision box covers, so two boxes can only overlap if they
+ * share a cell. The table is rebuilt from scratch every update with a counting
+ * sort, so nothing is allocated once the arrays have grown to the population.
+ */
+public class SpatialHashBroadphase implements Broadphase {
+    public static final float DEFAULT_CELL_SIZE = 32.0f;
+    private float cellSize;
+    private float inverseCellSize;
+    private int mask;
+    private int count;
+    private int[] bucketStarts;
+    private int[] bucketCursors;
+    private int[] bucketEntries;
+    private int[] cells;
+    private boolean[] inserted;
+    private int[] stamps;
+    private int stamp;
+
+    public SpatialHashBroadphase() {
+        this(DEFAULT_CELL_SIZE);
+    }
+    
+    public SpatialHashBroadphase(float cellSize) {
+        setCellSize(cellSize);
+        bucketStarts = new int[0];
+        bucketCursors = new int[0];
+        bucketEntries = new int[0];
+        cells = new int[0];
+        inserted = new boolean[0];
+        stamps = new int[0];
+    }
+    
+    @Override
+    public void update(Array<Entity> entities) {
+        count = entities.size;
+        ensureEntityCapacity(count);
+        
+        int tableSize = 16;
+        while (tableSize < count * 2) {
+            tableSize <<= 1;
+        }
+        mask = tableSize - 1;
+        if (bucketStarts.length < tableSize + 1) {
+            bucketStarts = new int[tableSize + 1];
+            bucketCursors = new int[tableSize];
+        }
+        for (int i = 0; i <= tableSize; i++) {
+            bucketStarts[i] = 0;
+        }
+        
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            Entity entity = entities.get(i);
+            inserted[i] = entity.isCheckingCollisions();
+            if (!inserted[i]) {
+                continue;
+            }
+            
+            Rectangle box = entity.getCollisionBox();
+            int minX = cell(box.x);
+            int minY = cell(box.y);
+            int maxX = cell(box.x + box.width);
+            int maxY = cell(box.y + box.height);
+            cells[i * 4] = minX;
+            cells[i * 4 + 1] = minY;
+            cells[i * 4 + 2] = maxX;
+            cells[i * 4 + 3] = maxY;
+            
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    bucketStarts[hash(x, y) + 1]++;
+                    total++;
+                }
+            }
+        }
+        
+        for (int i = 1; i <= tableSize; i++) {
+            bucketStarts[i] += bucketStarts[i - 1];
+        }
+        System.arraycopy(bucketStarts, 0, bucketCursors, 0, tableSize);
+        
+        if (bucketEntries.length < total) {
+            bucketEntries = new int[Math.max(total, bucketEntries.length * 2)];
+        }
+        
+        for (int i = 0; i < count; i++) {
+            if (inserted[i]) {
+                for (int x = cells[i * 4]; x <= cells[i * 4 + 2]; x++) {
+                    for (int y = cells[i * 4 + 1]; y <= cells[i * 4 + 3]; y++) {
+                        bucketEntries[bucketCursors[hash(x, y)]++] = i;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void query(int index, IntArray candidates) {
+        candidates.clear();
+        if (index >= count || !inserted[index]) {
+            return;
+        }
+        
+        if (stamp == Integer.MAX_VALUE) {
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = 0;
+            }
+            stamp = 0;
+        }
+        stamp++;
+        
+        for (int x = cells[index * 4]; x <= cells[index * 4 + 2]; x++) {
+            for (int y = cells[index * 4 + 1]; y <= cells[index * 4 + 3]; y++) {
+                int bucket = hash(x, y);
+                for (int i = bucketStarts[bucket]; i < bucketStarts[bucket + 1]; i++) {
+                    int other = bucketEntries[i];
+                    if (stamps[other] != stamp) {
+                        stamps[other] = stamp;
+                        candidates.add(other);
+                    }
+                }
+            }
+        }
+        
+        candidates.sort();
+    }
+    
+    private void ensureEntityCapacity(int size) {
+        if (inserted.length < size) {
+            int capacity = Math.max(size, inserted.length * 2);
+            cells = new int[capacity * 4];
+            inserted = new boolean[capacity];
+            stamps = new int[capacity];
+            stamp = 0;
+        }
+    }
+    
+    private int cell(float value) {
+        return (int) Math.floor(value * inverseCellSize);
+    }
+    
+    private int hash(int x, int y) {
+        return ((x * 73856093) ^ (y * 19349663)) & mask;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public void setCellSize(float cellSize) {
+        this.cellSize = cellSize;
+        inverseCellSize = 1.0f / cellSize;
+    }
+}
@@ -25,36 +25,46 @@
 package com.ray3k.superbug;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.esotericsoftware.spine.AnimationState;
-import com.esotericsoftware.spine.AnimationStateData;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonBounds;
 import com.esotericsoftware.spine.SkeletonData;
 
 public abstract class SpineEntity extends Entity {
+    private SkeletonTemplate template;
     private Skeleton skeleton;
     private AnimationState animationState;
     private SkeletonBounds skeletonBounds;
+    private static final VertexOffset vertexOffset = new VertexOffset();
+    private boolean skeletonBoundsValid;
     
     public SpineEntity() {
         super();
     }
     
     public SpineEntity(String skeletonDataPath, String animation) {
+        this(skeletonDataPath, animation, MixProfile.DEFAULT);
+    }
+    
+    public SpineEntity(String skeletonDataPath, String animation, MixProfile mixProfile) {
         super();
-        setSkeletonData(skeletonDataPath, animation);
+        setSkeletonData(skeletonDataPath, animation, mixProfile);
     }
     
     public void setSkeletonData(String skeletonDataPath, String animation) {
+        setSkeletonData(skeletonDataPath, animation, MixProfile.DEFAULT);
+    }
+    
+    public void setSkeletonData(String skeletonDataPath, String animation, MixProfile mixProfile) {
         SkeletonData skeletonData = Core.assetManager.get(skeletonDataPath, SkeletonData.class);
+        template = SkeletonTemplate.get(skeletonData);
         skeleton = new Skeleton(skeletonData);
-        AnimationStateData animationStateData = new AnimationStateData(skeletonData);
-        animationStateData.setDefaultMix(.25f);
-        animationState = new AnimationState(animationStateData);
-        animationState.setAnimation(0, animation, true);
+        animationState = new AnimationState(template.getAnimationStateData(mixProfile));
+        animationState.setAnimation(0, template.findAnimation(animation), true);
         
         skeletonBounds = new SkeletonBounds();
-        skeletonBounds.update(skeleton, true);
+        skeletonBoundsValid = false;
     }
 
     @Override
@@ -64,7 +74,7 @@ public abstract class SpineEntity extends Entity {
             animationState.update(delta);
             skeleton.updateWorldTransform();
             animationState.apply(skeleton);
-            skeletonBounds.update(skeleton, true);
+            skeletonBoundsValid = false;
         }
         
         actSub(delta);
@@ -72,26 +82,69 @@ public abstract class SpineEntity extends Entity {
     
     public abstract void actSub(float delta);
 
+    /**
+     * Draws the skeleton moved to the interpolated position. The pose is left
+     * where the last update put it and the vertices are offset as they are
+     * drawn, so rendering doesn't pose the bones again.
+     */
     @Override
-    public void draw(SpriteBatch spriteBatch, float delta) {
+    public void draw(SpriteBatch spriteBatch, float alpha) {
         if (skeleton != null) {
-            Core.skeletonRenderer.draw(spriteBatch, skeleton);
+            float x = getInterpolatedX(alpha) - skeleton.getX();
+            float y = getInterpolatedY(alpha) - skeleton.getY();
+            if (x != 0.0f || y != 0.0f) {
+                vertexOffset.set(x, y);
+                Core.skeletonRenderer.setVertexEffect(vertexOffset);
+                Core.skeletonRenderer.draw(spriteBatch, skeleton);
+                Core.skeletonRenderer.setVertexEffect(null);
+            } else {
+                Core.skeletonRenderer.draw(spriteBatch, skeleton);
+            }
         }
         
-        drawSub(spriteBatch, delta);
+        drawSub(spriteBatch, alpha);
     }
     
     public abstract void drawSub(SpriteBatch spriteBatch, float delta);
 
+    /**
+     * Uses the template's render radius around the entity's position, or the
+     * skeleton's bounding box attachments if the radius is unknown.
+     */
+    @Override
+    public boolean getRenderBounds(Rectangle bounds) {
+        if (template != null && template.getRenderRadius() >= 0) {
+            float radius = template.getRenderRadius();
+            bounds.set(getX() - radius, getY() - radius, radius * 2.0f, radius * 2.0f);
+            return true;
+        } else if (skeleton != null && getSkeletonBounds().getPolygons().size > 0) {
+            bounds.set(skeletonBounds.getMinX(), skeletonBounds.getMinY(), skeletonBounds.getWidth(), skeletonBounds.getHeight());
+            return true;
+        }
+        return super.getRenderBounds(bounds);
+    }
+
     public Skeleton getSkeleton() {
         return skeleton;
     }
 
+    public SkeletonTemplate getTemplate() {
+        return template;
+    }
+
     public AnimationState getAnimationState() {
         return animationState;
     }
 
+    /**
+     * Returns the bounds of the current pose. They are only computed when
+     * asked for, so entities that never query them don't pay for it.
+     */
     public SkeletonBounds getSkeletonBounds() {
+        if (!skeletonBoundsValid && skeleton != null) {
+            skeletonBounds.update(skeleton, true);
+            skeletonBoundsValid = true;
+        }
         return skeletonBounds;
     }
 }
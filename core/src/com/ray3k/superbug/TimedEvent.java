@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+/**
+ * An action scheduled on a {@link TimingWheel}. Events link themselves into
+ * the wheel's slots, so scheduling and cancelling allocate nothing and an
+ * event can be kept and rescheduled for as long as its owner lives.
+ */
+public abstract class TimedEvent {
+    TimingWheel wheel;
+    long due;
+    long sequence;
+    int slot;
+    TimedEvent previous;
+    TimedEvent next;
+    
+    /**
+     * Called by the wheel on the tick the event is due. The event is no longer
+     * scheduled at this point and may schedule itself again.
+     */
+    protected abstract void fire();
+    
+    public boolean isScheduled() {
+        return wheel != null;
+    }
+    
+    /**
+     * Returns the tick the event fires on, if it is scheduled.
+     */
+    public long getDue() {
+        return due;
+    }
+    
+    public void cancel() {
+        if (wheel != null) {
+            wheel.cancel(this);
+        }
+    }
+}
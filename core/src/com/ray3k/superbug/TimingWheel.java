@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug;
+
+/**
+ * Hierarchical timing wheel. Each tick only touches the events that are due
+ * instead of every timer. Level 0 has a slot for each of the next 64 ticks,
+ * and every level above covers 64 times the span of the one below. Events far
+ * in the future wait in a coarse slot and are moved down a level each time
+ * the wheel reaches their slot, so every event is moved at most
+ * {@value #LEVELS} - 1 times before it fires. Events due on the same tick
+ * fire in the order they were scheduled. Scheduling and cancelling are
+ * constant time.
+ */
+public class TimingWheel {
+    public static final int SLOT_BITS = 6;
+    public static final int SLOTS = 1 << SLOT_BITS;
+    public static final int LEVELS = 4;
+    /**
+     * The longest delay in ticks, about 46 hours at 100 ticks per second.
+     */
+    public static final long MAX_DELAY = (1L << (SLOT_BITS * LEVELS)) - 1;
+    private static final int MASK = SLOTS - 1;
+    private final TimedEvent[] slots;
+    private final TimedEvent[] tails;
+    private long tick;
+    private long sequence;
+    private int size;
+    private float tickDuration;
+
+    /**
+     * @param tickDuration the length of one tick in seconds, used to convert
+     * delays given in seconds
+     */
+    public TimingWheel(float tickDuration) {
+        slots = new TimedEvent[LEVELS * SLOTS];
+        tails = new TimedEvent[LEVELS * SLOTS];
+        this.tickDuration = tickDuration;
+    }
+    
+    /**
+     * Schedules the event to fire after the given number of seconds, rounded
+     * up to whole ticks and at least one tick. An event that is already
+     * scheduled is moved.
+     */
+    public void schedule(TimedEvent event, float seconds) {
+        scheduleTicks(event, Math.max(1L, (long) Math.ceil(seconds / tickDuration)));
+    }
+    
+    /**
+     * Schedules the event to fire after the given number of ticks. An event
+     * that is already scheduled is moved.
+     */
+    public void scheduleTicks(TimedEvent event, long ticks) {
+        if (ticks < 1 || ticks > MAX_DELAY) {
+            throw new IllegalArgumentException("Delay must be between 1 and " + MAX_DELAY + " ticks: " + ticks);
+        }
+        
+        if (event.wheel != null) {
+            event.wheel.cancel(event);
+        }
+        event.wheel = this;
+        event.due = tick + ticks;
+        event.sequence = sequence++;
+        insert(event);
+        size++;
+    }
+    
+    /**
+     * Schedules a one off action. Allocates an event, so it is meant for rare
+     * actions rather than per entity timers.
+     */
+    public TimedEvent schedule(final Runnable action, float seconds) {
+        TimedEvent event = new TimedEvent() {
+            @Override
+            protected void fire() {
+                action.run();
+            }
+        };
+        schedule(event, seconds);
+        return event;
+    }
+    
+    public void cancel(TimedEvent event) {
+        if (event.wheel == this) {
+            unlink(event);
+            event.wheel = null;
+            size--;
+        }
+    }
+    
+    /**
+     * Moves to the next tick and fires every event due on it.
+     */
+    public void advance() {
+        tick++;
+        
+        //cascade from the top so events moved down a level are cascaded again
+        int level = 0;
+        while (level + 1 < LEVELS && (tick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        for (; level > 0; level--) {
+            int slot = level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & MASK);
+            TimedEvent event = slots[slot];
+            slots[slot] = null;
+            tails[slot] = null;
+            while (event != null) {
+                TimedEvent next = event.next;
+                event.previous = null;
+                event.next = null;
+                insert(event);
+                event = next;
+            }
+        }
+        
+        //events fired here may cancel others in the same slot
+        int slot = (int) (tick & MASK);
+        TimedEvent event;
+        while ((event = slots[slot]) != null) {
+            unlink(event);
+            event.wheel = null;
+            size--;
+            event.fire();
+        }
+    }
+    
+    private void insert(TimedEvent event) {
+        long delay = event.due - tick;
+        int level = 0;
+        while (level + 1 < LEVELS && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        
+        int slot = level * SLOTS + (int) ((event.due >>> (SLOT_BITS * level)) & MASK);
+        event.slot = slot;
+        
+        //newly scheduled events go at the tail, cascaded ones may go further in
+        TimedEvent previous = tails[slot];
+        while (previous != null && previous.sequence > event.sequence) {
+            previous = previous.previous;
+        }
+        
+        event.previous = previous;
+        event.next = previous == null ? slots[slot] : previous.next;
+        if (previous == null) {
+            slots[slot] = event;
+        } else {
+            previous.next = event;
+        }
+        if (event.next == null) {
+            tails[slot] = event;
+        } else {
+            event.next.previous = event;
+        }
+    }
+    
+    private void unlink(TimedEvent event) {
+        if (event.previous == null) {
+            slots[event.slot] = event.next;
+        } else {
+            event.previous.next = event.next;
+        }
+        
+        if (event.next == null) {
+            tails[event.slot] = event.previous;
+        } else {
+            event.next.previous = event.previous;
+        }
+        event.previous = null;
+        event.next = null;
+    }
+    
+    /**
+     * Cancels every scheduled event.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length; i++) {
+            TimedEvent event = slots[i];
+            while (event != null) {
+                TimedEvent next = event.next;
+                event.wheel = null;
+                event.previous = null;
+                event.next = null;
+                event = next;
+            }
+            slots[i] = null;
+            tails[i] = null;
+        }
+        size = 0;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the number of scheduled events.
+     */
+    public int size() {
+        return size;
+    }
+
+    public float getTickDuration() {
+        return tickDuration;
+    }
+
+    public void setTickDuration(float tickDuration) {
+        this.tickDuration = tickDuration;
+    }
+}
@@ -27,16 +27,19 @@ package com.ray3k.superbug.entities;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.ray3k.superbug.Core;
 import com.ray3k.superbug.Entity;
+import com.ray3k.superbug.MixProfile;
+import com.ray3k.superbug.SimulationContext;
 import com.ray3k.superbug.SpineTwoColorEntity;
-import com.ray3k.superbug.states.GameState;
 
 public class DishEntity extends SpineTwoColorEntity {
+    private static final MixProfile MIX_PROFILE = new MixProfile(0.0f);
+    static {
+        MIX_PROFILE.addMix("hot", "normal", .5f);
+        MIX_PROFILE.addMix("cold", "normal", .5f);
+    }
 
-    public DishEntity() {
-        super(Core.DATA_PATH + "/spine/petri-dish.json", "normal", GameState.twoColorPolygonBatch);
-        getAnimationState().getData().setDefaultMix(0.0f);
-        getAnimationState().getData().setMix("hot", "normal", .5f);
-        getAnimationState().getData().setMix("cold", "normal", .5f);
+    public DishEntity(SimulationContext context) {
+        super(Core.DATA_PATH + "/spine/petri-dish.json", "normal", context.getTwoColorPolygonBatch(), MIX_PROFILE);
     }
 
     @Override
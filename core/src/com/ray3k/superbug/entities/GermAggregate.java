@@ -0,0 +1,352 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.ray3k.superbug.EntityView;
+import com.ray3k.superbug.RandomStreams;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.SimulationRandom;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+
+/**
+ * Germ population kept only as counts, for fast-forwarding. Germs are counted
+ * by immunity mask and by age in cohorts one leap wide, and time advances in
+ * leaps of tau seconds (tau-leaping). Within a leap the germs of a cohort
+ * split and die at the rates a {@link GermEntity} of that age would: deaths
+ * are binomial with the chance that a uniform lifetime ends during the leap,
+ * births are Poisson with the expected split attempts at that age times the
+ * food and germ limit chance, and the mutants among them are binomial. Ages
+ * matter because germs only split after the split time, so a population that
+ * forgot them would split later in life and pick up immunities slower. A leap
+ * costs the same with ten germs as with the whole germ limit.
+ */
+public class GermAggregate {
+    public static final float DEFAULT_TAU = .25f;
+    /**
+     * Steps of the split attempt table per leap.
+     */
+    private static final int RESOLUTION = 16;
+    private final SimulationContext context;
+    private final int[][] cohorts;
+    private final int[] counts;
+    private final int[] births;
+    private int size;
+    private float tau = DEFAULT_TAU;
+    private float[] attempts;
+    private float[] deathChances;
+    private float tableSplitTimeRandom = Float.NaN;
+    private float tableDeathTimeRandom = Float.NaN;
+
+    public GermAggregate(SimulationContext context) {
+        this.context = context;
+        cohorts = new int[Immunity.ALL + 1][];
+        counts = new int[Immunity.ALL + 1];
+        births = new int[Immunity.ALL + 1];
+    }
+    
+    /**
+     * Adds a germ with the given immunities that is age seconds old.
+     */
+    public void add(int immunities, float age) {
+        updateTables();
+        cohort(immunities)[Math.min((int) (age / tau), deathChances.length - 1)]++;
+        counts[immunities]++;
+        size++;
+    }
+    
+    /**
+     * Replaces the counts with the germs of the view that aren't destroyed and
+     * disposes them.
+     */
+    public void collapse(EntityView<GermEntity> germs) {
+        clear();
+        for (int i = 0; i < germs.size(); i++) {
+            GermEntity germ = germs.get(i);
+            if (!germ.isDestroyed()) {
+                add(germ.getImmunities(), germ.getAge());
+                germ.dispose();
+            }
+        }
+    }
+    
+    /**
+     * Adds a germ for every count to the context's entity manager and clears
+     * the counts. Each germ gets a random age within its cohort and a random
+     * position in the dish. Germs wander the whole dish within a few seconds,
+     * so an even spread is what the agent model settles into anyway.
+     */
+    public void materialize() {
+        RandomStreams random = context.getRandom();
+        DishEntity dish = context.getDish();
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            if (counts[mask] == 0) {
+                continue;
+            }
+            
+            int[] cohort = cohorts[mask];
+            for (int age = 0; age < cohort.length; age++) {
+                for (int i = 0; i < cohort[age]; i++) {
+                    float distance = GermEntity.PETRI_RADIUS * (float) Math.sqrt(random.movement.nextFloat());
+                    float angle = random.movement.random(360.0f) * MathUtils.degreesToRadians;
+                    
+                    GermEntity germ = GermEntity.obtain(context, random);
+                    germ.setImmunities(mask);
+                    germ.setPosition(dish.getX() + distance * MathUtils.cos(angle), dish.getY() + distance * MathUtils.sin(angle));
+                    germ.setAge((age + random.spawn.nextFloat()) * tau, random);
+                    context.getEntityManager().addEntity(germ);
+                }
+            }
+        }
+        clear();
+    }
+    
+    /**
+     * Advances the population by one leap of tau seconds. The split chance is
+     * taken from the population at the start of the leap.
+     */
+    public void leap() {
+        updateTables();
+        RandomStreams random = context.getRandom();
+        float germLimit = context.getGermLimit();
+        float splitChance = Math.max((germLimit - size) / germLimit * context.getFood(), 0.0f);
+        float mutationChance = context.getMutationChance();
+        
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            if (counts[mask] == 0) {
+                continue;
+            }
+            
+            int[] cohort = cohorts[mask];
+            int count = 0;
+            for (int age = cohort.length - 1; age >= 0; age--) {
+                int alive = cohort[age];
+                cohort[age] = 0;
+                if (alive == 0) {
+                    continue;
+                }
+                
+                int born = random.spawn.poisson(alive * splitChance * attempts[age]);
+                int mutants = random.mutation.binomial(born, mutationChance);
+                births[mask] += born - mutants;
+                for (int i = 0; i < mutants; i++) {
+                    births[Immunity.addRandomMissing(mask, random.mutation)]++;
+                }
+                
+                alive -= random.spawn.binomial(alive, deathChances[age]);
+                if (age + 1 < cohort.length) {
+                    cohort[age + 1] = alive;
+                    count += alive;
+                }
+            }
+            size += count - counts[mask];
+            counts[mask] = count;
+        }
+        
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            if (births[mask] > 0) {
+                cohort(mask)[0] = births[mask];
+                counts[mask] += births[mask];
+                size += births[mask];
+                births[mask] = 0;
+            }
+        }
+    }
+    
+    /**
+     * Kills germs like {@link GermIndex#kill(Immunity, float, float, SimulationRandom)}.
+     * @return how many germs died
+     */
+    public int kill(Immunity immunity, float chance, float immuneChance, SimulationRandom random) {
+        int killed = 0;
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            if (counts[mask] == 0) {
+                continue;
+            }
+            
+            float maskChance = immunity.isIn(mask) ? immuneChance : chance;
+            int[] cohort = cohorts[mask];
+            for (int age = 0; age < cohort.length; age++) {
+                int died = random.binomial(cohort[age], maskChance);
+                cohort[age] -= died;
+                counts[mask] -= died;
+                killed += died;
+            }
+        }
+        size -= killed;
+        return killed;
+    }
+    
+    /**
+     * Kills germs that aren't immune to the radiation and temperature with
+     * the chance that one leap's worth of ticks of
+     * {@link SimulationContext#applyEnvironment()} would have killed them.
+     */
+    public void applyEnvironment() {
+        float ticks = tau / context.getTimingWheel().getTickDuration();
+        float chance = 1.0f - (float) Math.pow(.99, ticks);
+        SimulationRandom random = context.getRandom().treatment;
+        
+        if (context.getRadiation() > 75.0f) {
+            kill(Immunity.RADIATION, chance, 0.0f, random);
+        }
+        
+        if (context.getTemperature() > .75f) {
+            kill(Immunity.HOT, chance, 0.0f, random);
+        }
+        
+        if (context.getTemperature() < .25f) {
+            kill(Immunity.COLD, chance, 0.0f, random);
+        }
+    }
+    
+    public void clear() {
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            if (counts[mask] > 0) {
+                int[] cohort = cohorts[mask];
+                for (int age = 0; age < cohort.length; age++) {
+                    cohort[age] = 0;
+                }
+                counts[mask] = 0;
+            }
+        }
+        size = 0;
+    }
+    
+    private int[] cohort(int mask) {
+        if (cohorts[mask] == null) {
+            cohorts[mask] = new int[deathChances.length];
+        }
+        return cohorts[mask];
+    }
+    
+    /**
+     * Rebuilds the per cohort split attempts and death chances if the split
+     * or death time randoms changed. Lifetimes are uniform between the death
+     * time and the death time plus its random, so the last cohort always dies.
+     * Split attempts are a renewal process with uniform gaps, so the expected
+     * attempts by each age are summed over a finer grid. Ages are taken at the
+     * middle of each cohort.
+     */
+    private void updateTables() {
+        float splitTimeRandom = context.getSplitTimeRandom();
+        float deathTimeRandom = context.getDeathTimeRandom();
+        if (splitTimeRandom == tableSplitTimeRandom && deathTimeRandom == tableDeathTimeRandom) {
+            return;
+        }
+        
+        int length = (int) Math.ceil((GermEntity.DEATH_TIME + deathTimeRandom) / tau) + 1;
+        if (deathChances != null && deathChances.length != length && size > 0) {
+            throw new IllegalStateException("Can't change the death time random while the aggregate has germs.");
+        } else if (deathChances != null && deathChances.length != length) {
+            for (int mask = 0; mask <= Immunity.ALL; mask++) {
+                cohorts[mask] = null;
+            }
+        }
+        
+        deathChances = new float[length];
+        for (int age = 0; age < length; age++) {
+            float start = (age + .5f) * tau;
+            float survived = 1.0f - uniformCdf(start, GermEntity.DEATH_TIME, deathTimeRandom);
+            float died = uniformCdf(start + tau, GermEntity.DEATH_TIME, deathTimeRandom) - uniformCdf(start, GermEntity.DEATH_TIME, deathTimeRandom);
+            deathChances[age] = survived > 0.0f ? Math.min(died / survived, 1.0f) : 1.0f;
+        }
+        deathChances[length - 1] = 1.0f;
+        
+        float step = tau / RESOLUTION;
+        int steps = (length + 1) * RESOLUTION;
+        double[] renewals = new double[steps + 1];
+        double[] gaps = new double[steps + 1];
+        for (int i = 1; i <= steps; i++) {
+            gaps[i] = uniformCdf(i * step, GermEntity.SPLIT_TIME, splitTimeRandom) - uniformCdf((i - 1) * step, GermEntity.SPLIT_TIME, splitTimeRandom);
+            renewals[i] = gaps[i];
+            for (int j = 1; j < i; j++) {
+                if (gaps[j] > 0.0) {
+                    renewals[i] += gaps[j] * renewals[i - j];
+                }
+            }
+        }
+        
+        double[] expected = new double[steps + 1];
+        for (int i = 1; i <= steps; i++) {
+            expected[i] = expected[i - 1] + renewals[i];
+        }
+        
+        attempts = new float[length];
+        for (int age = 0; age < length; age++) {
+            int start = age * RESOLUTION + RESOLUTION / 2;
+            attempts[age] = (float) (expected[start + RESOLUTION] - expected[start]);
+        }
+        
+        tableSplitTimeRandom = splitTimeRandom;
+        tableDeathTimeRandom = deathTimeRandom;
+    }
+    
+    private static float uniformCdf(float value, float start, float range) {
+        if (range <= 0.0f) {
+            return value >= start ? 1.0f : 0.0f;
+        }
+        return MathUtils.clamp((value - start) / range, 0.0f, 1.0f);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int size(int immunities) {
+        return counts[immunities];
+    }
+    
+    /**
+     * Returns the most immunities any germ has, 0 when there are none.
+     */
+    public int getMaxImmunities() {
+        int max = 0;
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            if (counts[mask] > 0) {
+                max = Math.max(max, Immunity.count(mask));
+            }
+        }
+        return max;
+    }
+
+    public float getTau() {
+        return tau;
+    }
+
+    /**
+     * Sets the length of a leap in seconds. Only while the aggregate is empty,
+     * since the cohorts are one leap wide.
+     */
+    public void setTau(float tau) {
+        if (size > 0) {
+            throw new IllegalStateException("Can't change tau while the aggregate has germs.");
+        }
+        this.tau = tau;
+        tableSplitTimeRandom = Float.NaN;
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            cohorts[mask] = null;
+        }
+    }
+}
@@ -25,124 +25,459 @@
 package com.ray3k.superbug.entities;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool.Poolable;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.Skin;
 import com.ray3k.superbug.Core;
 import com.ray3k.superbug.Entity;
+import com.ray3k.superbug.RandomStreams;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.SimulationRandom;
 import com.ray3k.superbug.SpineTwoColorEntity;
-import com.ray3k.superbug.states.GameState;
+import com.ray3k.superbug.TimedEvent;
+import com.ray3k.superbug.TimingWheel;
 
-public class GermEntity extends SpineTwoColorEntity {
-    private static final Vector2 temp = new Vector2();
-    private static final Vector2 temp2 = new Vector2();
+public class GermEntity extends SpineTwoColorEntity implements Poolable {
+    private final SimulationContext context;
+    private final boolean pooled;
     private float faceAngle;
-    private static final float PETRI_RADIUS = 160;
+    public static final float PETRI_RADIUS = 160;
     private float directionTimer;
-    private static final float DIRECTION_TIMER_TIME = 2.0f;
+    public static final float DIRECTION_TIMER_TIME = 2.0f;
     private float splitTimer;
-    private float splitTime = 5.0f;
-    private static final float SPLIT_TIME_RANDOM = 2.0f;
-    public static float food = 1f;
-    public static float germLimit = 2000;
-    public static int germCount = 0;
-    public static float temperature = .5f;
+    public static final float SPLIT_TIME = 5.0f;
+    private float splitTime = SPLIT_TIME;
+    public static final float SPLIT_TIME_RANDOM = 2.0f;
     private float deathTimer;
-    public float deathTime = 24.0f;
+    private float birthTime;
+    public static final float DEATH_TIME = 24.0f;
+    public float deathTime = DEATH_TIME;
     public static final float DEATH_TIME_RANDOM = 10.0f;
+    public static final float MUTATION_CHANCE = .005f;
+    public static final float SPEED = 20.0f;
+    public static final int SKIN_COUNT = 13;
     public static enum Immunity {
         PENICILLIN, CEPHALEXIN, TETRACYCLINE, PEROXIDE, ALCOHOL, BLEACH, HOT, COLD, RADIATION;
+        
+        public static final Immunity[] VALUES = values();
+        public static final int COUNT = VALUES.length;
+        /**
+         * Mask with every immunity set, a fully resistant germ.
+         */
+        public static final int ALL = (1 << COUNT) - 1;
+        /**
+         * For each mask, the immunities it is missing in declaration order.
+         */
+        private static final Immunity[][] MISSING = new Immunity[ALL + 1][];
+        static {
+            for (int mask = 0; mask <= ALL; mask++) {
+                MISSING[mask] = new Immunity[COUNT - Integer.bitCount(mask)];
+                int index = 0;
+                for (Immunity immunity : VALUES) {
+                    if (!immunity.isIn(mask)) {
+                        MISSING[mask][index++] = immunity;
+                    }
+                }
+            }
+        }
+        public final int mask = 1 << ordinal();
+        
+        public boolean isIn(int immunities) {
+            return (immunities & mask) != 0;
+        }
+        
+        /**
+         * Returns the mask with one random immunity it didn't already have
+         * added, or the mask unchanged if it is fully resistant.
+         */
+        public static int addRandomMissing(int immunities, SimulationRandom random) {
+            Immunity[] missing = MISSING[immunities];
+            if (missing.length > 0) {
+                immunities |= missing[random.random(missing.length - 1)].mask;
+            }
+            return immunities;
+        }
+        
+        public static int count(int immunities) {
+            return Integer.bitCount(immunities);
+        }
     }
-    public Array<Immunity> immunities;
+    private int immunities;
+    GermIndex index;
+    int indexSlot = -1;
+    private final Skin[] skins;
+    private int skin;
+    private final Bone hip;
+    private final Animation animation;
+    private final TimedEvent directionEvent;
+    private final TimedEvent splitEvent;
+    private final TimedEvent deathEvent;
 
-    public GermEntity() {
-        super(Core.DATA_PATH + "/spine/bacteria.json", "animation", GameState.twoColorPolygonBatch);
+    public GermEntity(SimulationContext context) {
+        this(context, context.getRandom());
+    }
+    
+    public GermEntity(SimulationContext context, RandomStreams random) {
+        this(context, false);
+        init(random);
+    }
+    
+    public GermEntity(GermEntity other) {
+        this(other, other.context.getRandom());
+    }
+    
+    public GermEntity(GermEntity other, RandomStreams random) {
+        this(other.context, false);
+        init(other, random);
+    }
+    
+    GermEntity(SimulationContext context, boolean pooled) {
+        super(Core.DATA_PATH + "/spine/bacteria.json", "animation", context.getTwoColorPolygonBatch());
+        this.context = context;
+        this.pooled = pooled;
+        skins = getTemplate().getNumberedSkins("bacteria");
+        hip = getSkeleton().getBones().get(getTemplate().findBoneIndex("hip"));
+        animation = getTemplate().findAnimation("animation");
+        
+        directionEvent = new TimedEvent() {
+            @Override
+            protected void fire() {
+                changeDirection();
+            }
+        };
+        splitEvent = new TimedEvent() {
+            @Override
+            protected void fire() {
+                split();
+            }
+        };
+        deathEvent = new TimedEvent() {
+            @Override
+            protected void fire() {
+                die();
+            }
+        };
+    }
+    
+    /**
+     * Takes a germ from the context's pool and sets it up like
+     * {@link #GermEntity(SimulationContext, RandomStreams)}.
+     */
+    public static GermEntity obtain(SimulationContext context, RandomStreams random) {
+        GermEntity germ = context.getPool().obtain();
+        germ.init(random);
+        return germ;
+    }
+    
+    /**
+     * Takes a germ from the pool of the other germ's context and sets it up
+     * like {@link #GermEntity(GermEntity, RandomStreams)}.
+     */
+    public static GermEntity obtain(GermEntity other, RandomStreams random) {
+        GermEntity germ = other.context.getPool().obtain();
+        germ.init(other, random);
+        return germ;
+    }
+    
+    public static GermEntity obtain(SimulationContext context) {
+        return obtain(context, context.getRandom());
+    }
+    
+    private void init(RandomStreams random) {
+        setTwoColorPolygonBatch(context.getTwoColorPolygonBatch());
+        setAnimationLod(context.getAnimationLod());
         getAnimationState().getCurrent(0).setLoop(true);
-        getSkeleton().setSkin("bacteria" + Integer.toString(MathUtils.random(1, 13)));
-        getSkeleton().findBone("hip").setRotation(MathUtils.random(360.0f));
-        faceAngle = MathUtils.random(360.0f);
+        setSkin(random.spawn.random(1, SKIN_COUNT));
+        hip.setRotation(random.spawn.random(360.0f));
+        faceAngle = random.movement.random(360.0f);
         directionTimer = DIRECTION_TIMER_TIME;
-        immunities = new Array<Immunity>();
+        birthTime = context.getTime();
         
-        resetTimers();
+        resetTimers(random);
     }
     
-    public GermEntity(GermEntity other) {
-        this();
+    private void init(GermEntity other, RandomStreams random) {
+        init(random);
         splitTime = other.splitTime;
         deathTime = other.deathTime;
-        immunities.addAll(other.immunities);
+        setImmunities(other.immunities);
         
-        resetTimers();
+        resetTimers(random);
+    }
+    
+    /**
+     * Returns the germ to the setup pose with no immunities. Called by the pool
+     * when the germ is freed.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        getSkeleton().setToSetupPose();
+        getAnimationState().clearTracks();
+        getAnimationState().setAnimation(0, animation, true);
+        if (index != null) {
+            index.remove(this);
+        }
+        immunities = 0;
+        splitTime = SPLIT_TIME;
+        deathTime = DEATH_TIME;
+    }
+    
+    @Override
+    public void removed() {
+        if (pooled) {
+            context.getPool().free(this);
+        }
     }
     
     public void resetTimers() {
-        splitTimer = splitTime + MathUtils.random(SPLIT_TIME_RANDOM);
-        deathTimer = deathTime + MathUtils.random(DEATH_TIME_RANDOM);
+        resetTimers(context.getRandom());
+    }
+    
+    /**
+     * Draws new split and death times. The timers run on the context's timing
+     * wheel once the germ is created, or are moved if it already was.
+     */
+    public void resetTimers(RandomStreams random) {
+        splitTimer = splitTime + random.spawn.random(context.getSplitTimeRandom());
+        deathTimer = deathTime + random.spawn.random(context.getDeathTimeRandom());
+        
+        if (splitEvent.isScheduled()) {
+            context.getTimingWheel().schedule(splitEvent, splitTimer);
+            context.getTimingWheel().schedule(deathEvent, deathTimer);
+        }
+    }
+    
+    /**
+     * Moves the split and death timers on as if the germ were already the
+     * given number of seconds old, for germs recreated by
+     * {@link GermAggregate}. A death time the germ would already have reached
+     * is drawn again from the times it could still have, so the germ lives
+     * as long as a germ that survived to that age. Call before the germ is
+     * created.
+     */
+    void setAge(float age, RandomStreams random) {
+        birthTime = context.getTime() - age;
+        
+        if (splitTimer > age) {
+            splitTimer -= age;
+        } else {
+            splitTimer = random.spawn.random(splitTime + context.getSplitTimeRandom());
+        }
+        
+        if (deathTimer > age) {
+            deathTimer -= age;
+        } else {
+            deathTimer = random.spawn.random(Math.max(deathTime + context.getDeathTimeRandom() - age, 0.0f));
+        }
+    }
+    
+    /**
+     * Returns how many seconds of simulation time the germ has lived.
+     */
+    public float getAge() {
+        return context.getTime() - birthTime;
     }
 
     @Override
     public void actSub(float delta) {
-        setMotion(20.0f * temperature, faceAngle);
+        update(delta, context.getSequentialWorker());
+    }
+    
+    /**
+     * Updates the skeleton and moves the germ, with scratch vectors and random
+     * numbers from the given worker. Used by {@link ParallelGermUpdater}.
+     * Direction changes, splits and deaths are events on the context's timing
+     * wheel and don't run here.
+     */
+    public void act(float delta, GermWorker worker) {
+        updateSkeleton(delta);
+        
+        update(delta, worker);
+    }
+    
+    private void update(float delta, GermWorker worker) {
+        RandomStreams random = worker.getRandom();
+        Vector2 temp = worker.temp;
+        Vector2 temp2 = worker.temp2;
+        
+        DishEntity dish = context.getDish();
+        
+        setMotion(SPEED * context.getTemperature(), faceAngle);
         
         temp.set(getX(), getY());
-        float distance = temp.dst(GameState.dish.getX(), GameState.dish.getY());
+        float distance = temp.dst(dish.getX(), dish.getY());
         
         if (distance > PETRI_RADIUS) {
-            temp2.set(GameState.dish.getX(), GameState.dish.getY());
+            temp2.set(dish.getX(), dish.getY());
             
             float angle = temp.sub(temp2).angle();
             
             temp.set(PETRI_RADIUS, 0);
             temp.rotate(angle);
-            temp.add(GameState.dish.getX(), GameState.dish.getY());
+            temp.add(dish.getX(), dish.getY());
             
             setPosition(temp.x, temp.y);
-            faceAngle = MathUtils.random(360.0f);
-        }
-        
-        directionTimer -= delta;
-        if (directionTimer <= 0) {
-            directionTimer = DIRECTION_TIMER_TIME;
-            faceAngle = MathUtils.random(360.0f);
+            faceAngle = random.movement.random(360.0f);
         }
+    }
+    
+    private void die() {
+        dispose();
+    }
+    
+    private void changeDirection() {
+        faceAngle = context.getRandom().movement.random(360.0f);
+        context.getTimingWheel().schedule(directionEvent, DIRECTION_TIMER_TIME);
+    }
+    
+    /**
+     * Fired by the timing wheel after the entities act, so the child is added
+     * right away and first acts on the next tick.
+     */
+    private void split() {
+        RandomStreams random = context.getRandom();
+        context.getTimingWheel().schedule(splitEvent, splitTime + random.spawn.random(context.getSplitTimeRandom()));
         
-        splitTimer -= delta;
-        if (splitTimer <= 0) {
-            splitTimer = splitTime + MathUtils.random(SPLIT_TIME_RANDOM);
-            if (MathUtils.randomBoolean((germLimit - germCount) / germLimit * food)) {
-                GermEntity germ = new GermEntity(this);
-                germ.setPosition(getX(), getY());
-                GameState.entityManager.addEntity(germ);
-                
-                if (MathUtils.randomBoolean(.005f)) {
-                    germ.getSkeleton().setSkin("bacteria" + Integer.toString(MathUtils.random(1, 13)));
-                    
-                    germ.generateNewImmunity();
-                } else {
-                    germ.getSkeleton().setSkin(getSkeleton().getSkin());
-                }
+        float germLimit = context.getGermLimit();
+        if (random.spawn.randomBoolean((germLimit - context.getGermCount()) / germLimit * context.getFood())) {
+            GermEntity germ = obtain(this, random);
+            germ.setPosition(getX(), getY());
+            
+            if (random.mutation.randomBoolean(context.getMutationChance())) {
+                germ.setSkin(random.mutation.random(1, SKIN_COUNT));
                 
+                germ.generateNewImmunity(random.mutation);
+            } else {
+                germ.setSkin(skin);
             }
+            
+            context.getEntityManager().addEntity(germ);
         }
-        
-        deathTimer -= delta;
-        if (deathTimer <= 0) {
-            dispose();
-        }
+    }
+    
+    /**
+     * Sets the skin to bacteria1 through bacteria{@value #SKIN_COUNT}.
+     */
+    public void setSkin(int skin) {
+        this.skin = skin;
+        getSkeleton().setSkin(skins[skin]);
+    }
+
+    public int getSkin() {
+        return skin;
     }
     
     public void generateNewImmunity() {
-        Array<Immunity> list = new Array<Immunity>(Immunity.values());
-        
-        for (Immunity immunity : immunities) {
-            list.removeValue(immunity, false);
+        generateNewImmunity(context.getRandom().mutation);
+    }
+    
+    public void generateNewImmunity(SimulationRandom random) {
+        setImmunities(Immunity.addRandomMissing(immunities, random));
+    }
+    
+    public boolean hasImmunity(Immunity immunity) {
+        return immunity.isIn(immunities);
+    }
+    
+    public void addImmunity(Immunity immunity) {
+        setImmunities(immunities | immunity.mask);
+    }
+    
+    public void removeImmunity(Immunity immunity) {
+        setImmunities(immunities & ~immunity.mask);
+    }
+    
+    /**
+     * Returns the immunities as a bit mask of {@link Immunity#mask}.
+     */
+    public int getImmunities() {
+        return immunities;
+    }
+
+    public void setImmunities(int immunities) {
+        int oldImmunities = this.immunities;
+        this.immunities = immunities & Immunity.ALL;
+        if (index != null && this.immunities != oldImmunities) {
+            index.move(this, oldImmunities);
         }
-        
-        if (list.size > 0) {
-            immunities.add(list.random());
+    }
+    
+    public SimulationContext getContext() {
+        return context;
+    }
+    
+    public int getImmunityCount() {
+        return Integer.bitCount(immunities);
+    }
+    
+    public boolean isFullyResistant() {
+        return immunities == Immunity.ALL;
+    }
+
+    /**
+     * Skeletons are only posed while germs are drawn as skeletons.
+     */
+    @Override
+    public void updateSkeleton(float delta) {
+        if (getRenderMode() == GermRenderMode.SKELETON) {
+            super.updateSkeleton(delta);
+        } else {
+            skipSkeletonUpdate(delta);
         }
     }
+    
+    /**
+     * Returns the current render mode, falling back to SKELETON when the
+     * resources for the selected mode haven't been created.
+     */
+    private GermRenderMode getRenderMode() {
+        GermRenderMode renderMode = context.getGermRenderMode();
+        if (renderMode == GermRenderMode.POSE_CACHE && context.getGermPoseCache() != null) {
+            return GermRenderMode.POSE_CACHE;
+        } else if (renderMode == GermRenderMode.SPRITE && context.getGermFrames() != null) {
+            return GermRenderMode.SPRITE;
+        } else if (renderMode == GermRenderMode.HEATMAP && context.getGermHeatmap() != null) {
+            return GermRenderMode.HEATMAP;
+        }
+        return GermRenderMode.SKELETON;
+    }
+
+    /**
+     * Germs in HEATMAP mode are drawn by {@link GermHeatmap}, not one by one.
+     */
+    @Override
+    public boolean isDrawing() {
+        return getRenderMode() != GermRenderMode.HEATMAP;
+    }
+
+    @Override
+    public void draw(SpriteBatch spriteBatch, float alpha) {
+        GermRenderMode renderMode = getRenderMode();
+        float x = getInterpolatedX(alpha);
+        float y = getInterpolatedY(alpha);
+        if (renderMode == GermRenderMode.POSE_CACHE) {
+            context.getGermPoseCache().draw(getTwoColorPolygonBatch(), skin, getAnimationTime(), x, y, getHipRotation());
+        } else if (renderMode == GermRenderMode.SPRITE) {
+            context.getGermFrames().draw(getTwoColorPolygonBatch(), skin, getAnimationTime(), x, y, getHipRotation());
+        } else if (renderMode == GermRenderMode.SKELETON) {
+            super.draw(spriteBatch, alpha);
+        }
+    }
+
+    /**
+     * Returns the time into the walk animation, including ticks that skipped
+     * posing the skeleton.
+     */
+    public float getAnimationTime() {
+        return getAnimationState().getCurrent(0).getTrackTime() + getSkippedDelta();
+    }
+    
+    public float getHipRotation() {
+        return hip.getRotation();
+    }
 
     @Override
     public void drawSub(SpriteBatch spriteBatch, float delta) {
@@ -150,7 +485,16 @@ public class GermEntity extends SpineTwoColorEntity {
 
     @Override
     public void create() {
+        refreshSkeleton();
+        
+        TimingWheel timingWheel = context.getTimingWheel();
+        timingWheel.schedule(directionEvent, directionTimer);
+        timingWheel.schedule(splitEvent, splitTimer);
+        timingWheel.schedule(deathEvent, deathTimer);
         
+        if (context.getGermIndex() != null) {
+            context.getGermIndex().add(this);
+        }
     }
 
     @Override
@@ -159,6 +503,13 @@ public class GermEntity extends SpineTwoColorEntity {
 
     @Override
     public void destroy() {
+        directionEvent.cancel();
+        splitEvent.cancel();
+        deathEvent.cancel();
+        
+        if (index != null) {
+            index.remove(this);
+        }
     }
 
     @Override
@@ -0,0 +1,184 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.esotericsoftware.spine.Skin;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.ray3k.superbug.MixProfile;
+import com.ray3k.superbug.SkeletonTemplate;
+
+/**
+ * The bacteria animation rendered once per skin into a grid of frames, one row
+ * per skin. Germs can then be drawn as single rotated quads. Frames are baked
+ * with the hip unrotated and the quad is rotated by the hip instead.
+ */
+public class GermFrames implements Disposable {
+    public static final int FRAME_COUNT = 16;
+    private static final int PADDING = 2;
+    private static final short[] TRIANGLES = {0, 1, 2, 2, 3, 0};
+    private static final float LIGHT_COLOR = Color.WHITE.toFloatBits();
+    private static final float DARK_COLOR = 0.0f;
+    private final FrameBuffer frameBuffer;
+    private final TextureRegion[][] frames;
+    private final float duration;
+    private final float cellSize;
+    private final float[] vertices;
+
+    /**
+     * Renders the frames. Must be called on the GL thread, outside of any batch
+     * begin and end.
+     */
+    public GermFrames(SkeletonData skeletonData, TwoColorPolygonBatch batch, SkeletonRenderer skeletonRenderer) {
+        SkeletonTemplate template = SkeletonTemplate.get(skeletonData);
+        Skin[] skins = template.getNumberedSkins("bacteria");
+        Animation animation = template.findAnimation("animation");
+        duration = animation.getDuration();
+        
+        Skeleton skeleton = new Skeleton(skeletonData);
+        AnimationState animationState = new AnimationState(template.getAnimationStateData(MixProfile.DEFAULT));
+        
+        //find the extent of every skin and frame so no frame is clipped
+        Vector2 offset = new Vector2();
+        Vector2 size = new Vector2();
+        FloatArray temp = new FloatArray();
+        float extent = 0.0f;
+        for (int skin = 1; skin <= GermEntity.SKIN_COUNT; skin++) {
+            for (int frame = 0; frame < FRAME_COUNT; frame++) {
+                pose(skeleton, animationState, skins[skin], animation, duration * frame / FRAME_COUNT);
+                skeleton.getBounds(offset, size, temp);
+                extent = Math.max(extent, Math.max(Math.abs(offset.x), Math.abs(offset.x + size.x)));
+                extent = Math.max(extent, Math.max(Math.abs(offset.y), Math.abs(offset.y + size.y)));
+            }
+        }
+        int cell = MathUtils.ceil(extent * 2.0f) + PADDING * 2;
+        cellSize = cell;
+        
+        int width = cell * FRAME_COUNT;
+        int height = cell * GermEntity.SKIN_COUNT;
+        frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+        frameBuffer.getColorBufferTexture().setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        
+        frameBuffer.begin();
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        batch.setProjectionMatrix(new Matrix4().setToOrtho2D(0, 0, width, height));
+        batch.begin();
+        batch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        for (int skin = 1; skin <= GermEntity.SKIN_COUNT; skin++) {
+            for (int frame = 0; frame < FRAME_COUNT; frame++) {
+                skeleton.setPosition(frame * cell + cell / 2.0f, (skin - 1) * cell + cell / 2.0f);
+                pose(skeleton, animationState, skins[skin], animation, duration * frame / FRAME_COUNT);
+                skeletonRenderer.draw(batch, skeleton);
+            }
+        }
+        batch.end();
+        frameBuffer.end();
+        
+        frames = new TextureRegion[GermEntity.SKIN_COUNT + 1][FRAME_COUNT];
+        for (int skin = 1; skin <= GermEntity.SKIN_COUNT; skin++) {
+            for (int frame = 0; frame < FRAME_COUNT; frame++) {
+                TextureRegion region = new TextureRegion(frameBuffer.getColorBufferTexture(), frame * cell, (skin - 1) * cell, cell, cell);
+                region.flip(false, true);
+                frames[skin][frame] = region;
+            }
+        }
+        
+        vertices = new float[24];
+    }
+    
+    /**
+     * Poses the skeleton with the given skin at the given time of the looping
+     * animation, starting from the setup pose.
+     */
+    static void pose(Skeleton skeleton, AnimationState animationState, Skin skin, Animation animation, float time) {
+        skeleton.setSkin(skin);
+        skeleton.setToSetupPose();
+        animationState.clearTracks();
+        animationState.setAnimation(0, animation, true);
+        animationState.update(time);
+        animationState.apply(skeleton);
+        skeleton.updateWorldTransform();
+    }
+    
+    /**
+     * Draws the frame closest to the given animation time, centered on x, y and
+     * rotated by rotation degrees.
+     */
+    public void draw(TwoColorPolygonBatch batch, int skin, float time, float x, float y, float rotation) {
+        int frame = duration > 0 ? (int) (time / duration * FRAME_COUNT) % FRAME_COUNT : 0;
+        if (frame < 0) {
+            frame += FRAME_COUNT;
+        }
+        TextureRegion region = frames[skin][frame];
+        
+        float half = cellSize / 2.0f;
+        float cos = MathUtils.cosDeg(rotation) * half;
+        float sin = MathUtils.sinDeg(rotation) * half;
+        
+        //bottom left, bottom right, top right, top left
+        setVertex(0, x - cos + sin, y - sin - cos, region.getU(), region.getV2());
+        setVertex(1, x + cos + sin, y + sin - cos, region.getU2(), region.getV2());
+        setVertex(2, x + cos - sin, y + sin + cos, region.getU2(), region.getV());
+        setVertex(3, x - cos - sin, y - sin + cos, region.getU(), region.getV());
+        
+        batch.draw(region.getTexture(), vertices, 0, vertices.length, TRIANGLES, 0, TRIANGLES.length);
+    }
+    
+    private void setVertex(int index, float x, float y, float u, float v) {
+        int offset = index * 6;
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = LIGHT_COLOR;
+        vertices[offset + 3] = DARK_COLOR;
+        vertices[offset + 4] = u;
+        vertices[offset + 5] = v;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    @Override
+    public void dispose() {
+        frameBuffer.dispose();
+    }
+}
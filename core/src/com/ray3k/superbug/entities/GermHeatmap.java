@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Disposable;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.ray3k.superbug.EntityView;
+import com.ray3k.superbug.states.SimulationSnapshot;
+
+/**
+ * Coarse grid of germ counts around the dish drawn as one texture. The counts
+ * are rebuilt and uploaded once per frame.
+ */
+public class GermHeatmap implements Disposable {
+    public static final int SIZE = 64;
+    private static final short[] TRIANGLES = {0, 1, 2, 2, 3, 0};
+    private static final float LIGHT_COLOR = Color.WHITE.toFloatBits();
+    private static final float DARK_COLOR = 0.0f;
+    private final float extent;
+    private final float cellSize;
+    private final int[] counts;
+    private final Pixmap pixmap;
+    private final Texture texture;
+    private final Color color;
+    private final float[] vertices;
+    private float left;
+    private float bottom;
+
+    /**
+     * @param extent the width and height of the area covered, in world units
+     * @param color the color of the densest cell
+     */
+    public GermHeatmap(float extent, Color color) {
+        this.extent = extent;
+        this.color = new Color(color);
+        cellSize = extent / SIZE;
+        counts = new int[SIZE * SIZE];
+        pixmap = new Pixmap(SIZE, SIZE, Pixmap.Format.RGBA8888);
+        pixmap.setBlending(Pixmap.Blending.None);
+        texture = new Texture(pixmap);
+        texture.setFilter(Texture.TextureFilter.Linear, Texture.TextureFilter.Linear);
+        vertices = new float[24];
+    }
+    
+    /**
+     * Counts the germs in each cell of the grid centered on x, y and uploads
+     * the result.
+     */
+    public void update(EntityView<GermEntity> germs, float x, float y) {
+        begin(x, y);
+        
+        int max = 0;
+        for (int i = 0; i < germs.size(); i++) {
+            GermEntity germ = germs.get(i);
+            if (!germ.isDestroyed()) {
+                max = Math.max(max, add(germ.getX(), germ.getY()));
+            }
+        }
+        
+        upload(max);
+    }
+    
+    /**
+     * Same as {@link #update(EntityView, float, float)} for the germs in a
+     * snapshot published by the simulation thread.
+     */
+    public void update(SimulationSnapshot snapshot, float x, float y) {
+        begin(x, y);
+        
+        int max = 0;
+        for (int i = 0; i < snapshot.size(); i++) {
+            max = Math.max(max, add(snapshot.getX(i, 1.0f), snapshot.getY(i, 1.0f)));
+        }
+        
+        upload(max);
+    }
+    
+    private void begin(float x, float y) {
+        left = x - extent / 2.0f;
+        bottom = y - extent / 2.0f;
+        
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+    }
+    
+    /**
+     * Adds a germ to its cell and returns the cell's new count, or 0 if it is
+     * outside the grid.
+     */
+    private int add(float x, float y) {
+        int column = (int) ((x - left) / cellSize);
+        int row = (int) ((y - bottom) / cellSize);
+        if (column >= 0 && column < SIZE && row >= 0 && row < SIZE) {
+            return ++counts[row * SIZE + column];
+        }
+        return 0;
+    }
+    
+    private void upload(int max) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                int count = counts[row * SIZE + column];
+                float alpha = count == 0 ? 0.0f : .25f + .75f * count / max;
+                //premultiplied to match the batch's blend function
+                pixmap.drawPixel(column, SIZE - 1 - row, Color.rgba8888(color.r * alpha, color.g * alpha, color.b * alpha, alpha));
+            }
+        }
+        texture.draw(pixmap, 0, 0);
+    }
+    
+    public void draw(TwoColorPolygonBatch batch) {
+        setVertex(0, left, bottom, 0.0f, 1.0f);
+        setVertex(1, left + extent, bottom, 1.0f, 1.0f);
+        setVertex(2, left + extent, bottom + extent, 1.0f, 0.0f);
+        setVertex(3, left, bottom + extent, 0.0f, 0.0f);
+        
+        batch.draw(texture, vertices, 0, vertices.length, TRIANGLES, 0, TRIANGLES.length);
+    }
+    
+    private void setVertex(int index, float x, float y, float u, float v) {
+        int offset = index * 6;
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = LIGHT_COLOR;
+        vertices[offset + 3] = DARK_COLOR;
+        vertices[offset + 4] = u;
+        vertices[offset + 5] = v;
+    }
+    
+    /**
+     * Returns the number of germs counted in the cell at the given column and
+     * row by the last update.
+     */
+    public int getCount(int column, int row) {
+        return counts[row * SIZE + column];
+    }
+
+    @Override
+    public void dispose() {
+        pixmap.dispose();
+        texture.dispose();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.superbug.SimulationRandom;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+
+/**
+ * Live germs grouped by their immunity mask. Germs add themselves when they are
+ * added to the EntityManager, move when they mutate and remove themselves when
+ * they are disposed. Treatments can then decide how many germs of each
+ * genotype die without visiting the survivors.
+ */
+public class GermIndex {
+    private final Array<GermEntity>[] buckets;
+    private int size;
+    private final GermStatistics statistics;
+
+    @SuppressWarnings("unchecked")
+    public GermIndex() {
+        buckets = (Array<GermEntity>[]) new Array<?>[Immunity.ALL + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Array<GermEntity>(false, 16);
+        }
+        statistics = new GermStatistics();
+    }
+    
+    public void add(GermEntity germ) {
+        if (germ.index != null) {
+            germ.index.remove(germ);
+        }
+        
+        Array<GermEntity> bucket = buckets[germ.getImmunities()];
+        germ.index = this;
+        germ.indexSlot = bucket.size;
+        bucket.add(germ);
+        size++;
+        statistics.add(germ.getImmunities());
+    }
+    
+    public void remove(GermEntity germ) {
+        if (germ.index == this) {
+            removeFromBucket(germ, germ.getImmunities());
+            germ.index = null;
+            germ.indexSlot = -1;
+            size--;
+            statistics.remove(germ.getImmunities());
+        }
+    }
+    
+    /**
+     * Moves a germ whose immunities changed from the given mask to its current
+     * mask.
+     */
+    void move(GermEntity germ, int oldImmunities) {
+        removeFromBucket(germ, oldImmunities);
+        statistics.remove(oldImmunities);
+        statistics.add(germ.getImmunities());
+        
+        Array<GermEntity> bucket = buckets[germ.getImmunities()];
+        germ.indexSlot = bucket.size;
+        bucket.add(germ);
+    }
+    
+    private void removeFromBucket(GermEntity germ, int immunities) {
+        Array<GermEntity> bucket = buckets[immunities];
+        int slot = germ.indexSlot;
+        int last = bucket.size - 1;
+        if (slot != last) {
+            GermEntity moved = bucket.get(last);
+            bucket.set(slot, moved);
+            moved.indexSlot = slot;
+        }
+        bucket.removeIndex(last);
+    }
+    
+    /**
+     * Disposes each germ without the immunity with the given chance and each
+     * germ with it with immuneChance. The number of deaths per genotype is
+     * drawn from a binomial distribution, so the cost depends on how many
+     * germs die rather than on the population.
+     * @return the number of germs killed
+     */
+    public int kill(Immunity immunity, float chance, float immuneChance, SimulationRandom random) {
+        int killed = 0;
+        for (int immunities = 0; immunities < buckets.length; immunities++) {
+            Array<GermEntity> bucket = buckets[immunities];
+            if (bucket.size > 0) {
+                int deaths = random.binomial(bucket.size, immunity.isIn(immunities) ? immuneChance : chance);
+                for (int i = 0; i < deaths; i++) {
+                    //disposing removes the germ from the bucket
+                    bucket.get(random.nextInt(bucket.size)).dispose();
+                }
+                killed += deaths;
+            }
+        }
+        return killed;
+    }
+    
+    public void clear() {
+        for (Array<GermEntity> bucket : buckets) {
+            for (int i = 0; i < bucket.size; i++) {
+                GermEntity germ = bucket.get(i);
+                germ.index = null;
+                germ.indexSlot = -1;
+            }
+            bucket.clear();
+        }
+        size = 0;
+        statistics.clear();
+    }
+    
+    /**
+     * Returns the germs with exactly the given immunity mask. Do not modify.
+     */
+    public Array<GermEntity> getGerms(int immunities) {
+        return buckets[immunities];
+    }
+    
+    public GermStatistics getStatistics() {
+        return statistics;
+    }
+    
+    public int size(int immunities) {
+        return buckets[immunities].size;
+    }
+    
+    public int size() {
+        return size;
+    }
+}
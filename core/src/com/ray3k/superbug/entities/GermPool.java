@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.utils.Pool;
+import com.ray3k.superbug.SimulationContext;
+
+/**
+ * Recycles the germs of one {@link SimulationContext} once its EntityManager
+ * has removed them. Germs are only obtained and freed by the thread that steps
+ * the context, so the pool isn't synchronized.
+ */
+public class GermPool extends Pool<GermEntity> {
+    private final SimulationContext context;
+    private boolean enabled;
+
+    public GermPool(SimulationContext context) {
+        this.context = context;
+        enabled = true;
+    }
+    
+    @Override
+    protected GermEntity newObject() {
+        return new GermEntity(context, true);
+    }
+
+    @Override
+    public void free(GermEntity germ) {
+        if (enabled) {
+            super.free(germ);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * When disabled, freed germs are dropped and every obtain constructs a new
+     * germ, like before pooling was added.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.ray3k.superbug.RandomStreams;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.SimulationRandom;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+
+/**
+ * Data oriented store for large germ populations. Every germ is a row in a set
+ * of parallel primitive arrays and dead germs are swap-removed, so the per-tick
+ * update is a single loop over contiguous memory with no per-germ objects. The
+ * rules are the same as a germ's movement, timer events and treatments, with the
+ * environment read from a {@link SimulationContext}.
+ */
+public class GermPopulation {
+    private static final float GROWTH = 1.75f;
+    private int size;
+    private float[] x;
+    private float[] y;
+    private float[] xSpeed;
+    private float[] ySpeed;
+    private float[] faceAngle;
+    private float[] hipRotation;
+    private float[] directionTimer;
+    private float[] splitTimer;
+    private float[] splitTime;
+    private float[] deathTimer;
+    private float[] deathTime;
+    private int[] immunities;
+    private int[] skin;
+    private float dishX;
+    private float dishY;
+    private int maxImmunities;
+    private final SimulationContext context;
+    private RandomStreams random;
+    
+    public GermPopulation(SimulationContext context) {
+        this(context, 16);
+    }
+    
+    public GermPopulation(SimulationContext context, int capacity) {
+        this.context = context;
+        random = context.getRandom();
+        allocate(Math.max(capacity, 1));
+    }
+    
+    /**
+     * Adds a new germ with a random skin and no immunities, the same as
+     * constructing a {@link GermEntity}.
+     * @return the index of the new germ
+     */
+    public int add(float x, float y) {
+        if (size == this.x.length) {
+            allocate((int) (size * GROWTH) + 1);
+        }
+        
+        int index = size++;
+        this.x[index] = x;
+        this.y[index] = y;
+        xSpeed[index] = 0.0f;
+        ySpeed[index] = 0.0f;
+        skin[index] = random.spawn.random(1, GermEntity.SKIN_COUNT);
+        hipRotation[index] = random.spawn.random(360.0f);
+        faceAngle[index] = random.movement.random(360.0f);
+        directionTimer[index] = GermEntity.DIRECTION_TIMER_TIME;
+        splitTime[index] = GermEntity.SPLIT_TIME;
+        deathTime[index] = GermEntity.DEATH_TIME;
+        immunities[index] = 0;
+        resetTimers(index);
+        
+        return index;
+    }
+    
+    /**
+     * Adds a child of the given germ at the parent's position, inheriting its
+     * timings, skin and immunities and possibly mutating.
+     * @return the index of the child
+     */
+    public int split(int parent) {
+        int index = add(x[parent], y[parent]);
+        splitTime[index] = splitTime[parent];
+        deathTime[index] = deathTime[parent];
+        immunities[index] = immunities[parent];
+        resetTimers(index);
+        
+        if (random.mutation.randomBoolean(context.getMutationChance())) {
+            skin[index] = random.mutation.random(1, GermEntity.SKIN_COUNT);
+            generateNewImmunity(index);
+        } else {
+            skin[index] = skin[parent];
+        }
+        
+        return index;
+    }
+    
+    /**
+     * Removes the germ by moving the last germ into its slot. Indices of other
+     * germs are only invalidated for the last germ.
+     */
+    public void remove(int index) {
+        int last = --size;
+        if (index != last) {
+            x[index] = x[last];
+            y[index] = y[last];
+            xSpeed[index] = xSpeed[last];
+            ySpeed[index] = ySpeed[last];
+            faceAngle[index] = faceAngle[last];
+            hipRotation[index] = hipRotation[last];
+            directionTimer[index] = directionTimer[last];
+            splitTimer[index] = splitTimer[last];
+            splitTime[index] = splitTime[last];
+            deathTimer[index] = deathTimer[last];
+            deathTime[index] = deathTime[last];
+            immunities[index] = immunities[last];
+            skin[index] = skin[last];
+        }
+    }
+    
+    public void clear() {
+        size = 0;
+        maxImmunities = 0;
+    }
+    
+    public void resetTimers(int index) {
+        splitTimer[index] = splitTime[index] + random.spawn.random(context.getSplitTimeRandom());
+        deathTimer[index] = deathTime[index] + random.spawn.random(context.getDeathTimeRandom());
+    }
+    
+    /**
+     * Steps the population by one tick the same way
+     * {@link SimulationContext#step(float)} steps germ entities: environment
+     * kills, food decay, then movement and timers. The context's germ count is
+     * updated afterwards.
+     */
+    public void step(float delta) {
+        applyEnvironment();
+        
+        context.setFood(MathUtils.clamp(context.getFood() - .01f * delta, 0.0f, 1.0f));
+        
+        act(delta);
+        context.setGermCount(size);
+    }
+    
+    /**
+     * Moves every germ and counts down its timers. Germs are visited from the
+     * last row down, so children split off this tick are appended past the
+     * loop and first act on the next tick, like germ entities.
+     */
+    public void act(float delta) {
+        float speed = GermEntity.SPEED * context.getTemperature();
+        float germLimit = context.getGermLimit();
+        float splitChance = (germLimit - size) / germLimit * context.getFood();
+        float splitTimeRandom = context.getSplitTimeRandom();
+        float radius = GermEntity.PETRI_RADIUS;
+        
+        maxImmunities = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            x[i] += xSpeed[i] * delta;
+            y[i] += ySpeed[i] * delta;
+            
+            float radians = faceAngle[i] * MathUtils.degreesToRadians;
+            xSpeed[i] = speed * (float) Math.cos(radians);
+            ySpeed[i] = speed * (float) Math.sin(radians);
+            
+            float dx = x[i] - dishX;
+            float dy = y[i] - dishY;
+            if (dx * dx + dy * dy > radius * radius) {
+                float angle = (float) Math.atan2(dy, dx);
+                x[i] = dishX + radius * (float) Math.cos(angle);
+                y[i] = dishY + radius * (float) Math.sin(angle);
+                faceAngle[i] = random.movement.random(360.0f);
+            }
+            
+            directionTimer[i] -= delta;
+            if (directionTimer[i] <= 0) {
+                directionTimer[i] = GermEntity.DIRECTION_TIMER_TIME;
+                faceAngle[i] = random.movement.random(360.0f);
+            }
+            
+            splitTimer[i] -= delta;
+            if (splitTimer[i] <= 0) {
+                splitTimer[i] = splitTime[i] + random.spawn.random(splitTimeRandom);
+                if (random.spawn.randomBoolean(splitChance)) {
+                    split(i);
+                }
+            }
+            
+            deathTimer[i] -= delta;
+            if (deathTimer[i] <= 0) {
+                //the last row has already been visited
+                remove(i);
+            } else {
+                maxImmunities = Math.max(maxImmunities, Integer.bitCount(immunities[i]));
+            }
+        }
+    }
+    
+    /**
+     * Kills germs that aren't immune to the current radiation and temperature,
+     * the same as {@link SimulationContext#applyEnvironment()}.
+     */
+    public void applyEnvironment() {
+        if (context.getRadiation() > 75.0f) {
+            kill(Immunity.RADIATION, .01f, 0.0f, random.treatment);
+        }
+        
+        if (context.getTemperature() > .75f) {
+            kill(Immunity.HOT, .01f, 0.0f, random.treatment);
+        }
+        
+        if (context.getTemperature() < .25f) {
+            kill(Immunity.COLD, .01f, 0.0f, random.treatment);
+        }
+    }
+    
+    /**
+     * Kills each germ with the given chance, or with immuneChance if its
+     * immunity mask has the given immunity.
+     * @return the number of germs killed
+     */
+    public int kill(Immunity immunity, float chance, float immuneChance, SimulationRandom random) {
+        int killed = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            if (random.randomBoolean(immunity.isIn(immunities[i]) ? immuneChance : chance)) {
+                remove(i);
+                killed++;
+            }
+        }
+        return killed;
+    }
+    
+    public void generateNewImmunity(int index) {
+        immunities[index] = Immunity.addRandomMissing(immunities[index], random.mutation);
+    }
+    
+    private void allocate(int capacity) {
+        x = resize(x, capacity);
+        y = resize(y, capacity);
+        xSpeed = resize(xSpeed, capacity);
+        ySpeed = resize(ySpeed, capacity);
+        faceAngle = resize(faceAngle, capacity);
+        hipRotation = resize(hipRotation, capacity);
+        directionTimer = resize(directionTimer, capacity);
+        splitTimer = resize(splitTimer, capacity);
+        splitTime = resize(splitTime, capacity);
+        deathTimer = resize(deathTimer, capacity);
+        deathTime = resize(deathTime, capacity);
+        immunities = resize(immunities, capacity);
+        skin = resize(skin, capacity);
+    }
+    
+    private float[] resize(float[] array, int capacity) {
+        float[] newArray = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, newArray, 0, size);
+        }
+        return newArray;
+    }
+    
+    private int[] resize(int[] array, int capacity) {
+        int[] newArray = new int[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, newArray, 0, size);
+        }
+        return newArray;
+    }
+
+    public RandomStreams getRandom() {
+        return random;
+    }
+
+    public void setRandom(RandomStreams random) {
+        this.random = random;
+    }
+
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns the most immunities any germ had after the last {@link #act(float)}.
+     */
+    public int getMaxImmunities() {
+        return maxImmunities;
+    }
+    
+    public float getX(int index) {
+        return x[index];
+    }
+    
+    public float getY(int index) {
+        return y[index];
+    }
+    
+    public float getFaceAngle(int index) {
+        return faceAngle[index];
+    }
+    
+    public float getHipRotation(int index) {
+        return hipRotation[index];
+    }
+    
+    public int getSkin(int index) {
+        return skin[index];
+    }
+    
+    public int getImmunities(int index) {
+        return immunities[index];
+    }
+    
+    public void setImmunities(int index, int immunities) {
+        this.immunities[index] = immunities;
+    }
+    
+    public boolean hasImmunity(int index, Immunity immunity) {
+        return immunity.isIn(immunities[index]);
+    }
+    
+    public int getImmunityCount(int index) {
+        return Integer.bitCount(immunities[index]);
+    }
+
+    public void setDishPosition(float x, float y) {
+        dishX = x;
+        dishY = y;
+    }
+
+    public float getDishX() {
+        return dishX;
+    }
+
+    public float getDishY() {
+        return dishY;
+    }
+}
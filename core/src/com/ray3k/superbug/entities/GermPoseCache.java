@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.esotericsoftware.spine.Skin;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.ray3k.superbug.MixProfile;
+import com.ray3k.superbug.SkeletonTemplate;
+
+/**
+ * Bacteria poses shared by every germ with the same skin and animation phase.
+ * The animation is split into a number of phases and each (skin, phase) pose
+ * is posed and rendered by Spine once, the first time it is needed, with the
+ * output vertices recorded. Germs draw by copying the recorded vertices rotated
+ * by their hip rotation and moved to their position, so no per germ animation,
+ * bone or attachment work is done. Like {@link GermFrames}, the hip rotation is
+ * applied around the skeleton origin and slots are assumed to use the normal
+ * blend mode.
+ */
+public class GermPoseCache implements Disposable {
+    public static final int DEFAULT_PHASES = 16;
+    private static final int STRIDE = 6;
+    private final int phases;
+    private final Pose[][] poses;
+    private final Skeleton skeleton;
+    private final AnimationState animationState;
+    private final Skin[] skins;
+    private final Animation animation;
+    private final float duration;
+    private final SkeletonRenderer skeletonRenderer;
+    private final RecordingBatch recordingBatch;
+    private float[] transformed;
+
+    public GermPoseCache(SkeletonData skeletonData, SkeletonRenderer skeletonRenderer) {
+        this(skeletonData, skeletonRenderer, DEFAULT_PHASES);
+    }
+    
+    /**
+     * Must be created on the GL thread.
+     */
+    public GermPoseCache(SkeletonData skeletonData, SkeletonRenderer skeletonRenderer, int phases) {
+        this.phases = phases;
+        this.skeletonRenderer = skeletonRenderer;
+        SkeletonTemplate template = SkeletonTemplate.get(skeletonData);
+        skins = template.getNumberedSkins("bacteria");
+        animation = template.findAnimation("animation");
+        duration = animation.getDuration();
+        skeleton = new Skeleton(skeletonData);
+        animationState = new AnimationState(template.getAnimationStateData(MixProfile.DEFAULT));
+        poses = new Pose[GermEntity.SKIN_COUNT + 1][phases];
+        recordingBatch = new RecordingBatch();
+        transformed = new float[256];
+    }
+    
+    private Pose getPose(int skin, int phase) {
+        Pose pose = poses[skin][phase];
+        if (pose == null) {
+            pose = new Pose();
+            skeleton.setPosition(0.0f, 0.0f);
+            GermFrames.pose(skeleton, animationState, skins[skin], animation, duration * phase / phases);
+            recordingBatch.pose = pose;
+            skeletonRenderer.draw(recordingBatch, skeleton);
+            recordingBatch.pose = null;
+            poses[skin][phase] = pose;
+        }
+        return pose;
+    }
+    
+    /**
+     * Draws the pose for the phase closest to the given animation time,
+     * rotated by rotation degrees and moved to x, y.
+     */
+    public void draw(TwoColorPolygonBatch batch, int skin, float time, float x, float y, float rotation) {
+        int phase = duration > 0 ? (int) (time / duration * phases) % phases : 0;
+        if (phase < 0) {
+            phase += phases;
+        }
+        Pose pose = getPose(skin, phase);
+        
+        float cos = MathUtils.cosDeg(rotation);
+        float sin = MathUtils.sinDeg(rotation);
+        for (int i = 0; i < pose.textures.size; i++) {
+            float[] vertices = pose.vertices.get(i);
+            if (transformed.length < vertices.length) {
+                transformed = new float[vertices.length];
+            }
+            
+            for (int j = 0; j < vertices.length; j += STRIDE) {
+                float vx = vertices[j];
+                float vy = vertices[j + 1];
+                transformed[j] = x + vx * cos - vy * sin;
+                transformed[j + 1] = y + vx * sin + vy * cos;
+                transformed[j + 2] = vertices[j + 2];
+                transformed[j + 3] = vertices[j + 3];
+                transformed[j + 4] = vertices[j + 4];
+                transformed[j + 5] = vertices[j + 5];
+            }
+            
+            short[] triangles = pose.triangles.get(i);
+            batch.draw(pose.textures.get(i), transformed, 0, vertices.length, triangles, 0, triangles.length);
+        }
+    }
+
+    public int getPhases() {
+        return phases;
+    }
+
+    @Override
+    public void dispose() {
+        recordingBatch.dispose();
+    }
+    
+    private static class Pose {
+        final Array<Texture> textures = new Array<Texture>();
+        final Array<float[]> vertices = new Array<float[]>();
+        final Array<short[]> triangles = new Array<short[]>();
+    }
+    
+    /**
+     * Keeps what SkeletonRenderer draws instead of sending it to the GPU.
+     */
+    private static class RecordingBatch extends TwoColorPolygonBatch {
+        Pose pose;
+
+        public RecordingBatch() {
+            super(64);
+        }
+
+        @Override
+        public void draw(Texture texture, float[] polygonVertices, int verticesOffset, int verticesCount, short[] polygonTriangles, int trianglesOffset, int trianglesCount) {
+            float[] vertices = new float[verticesCount];
+            System.arraycopy(polygonVertices, verticesOffset, vertices, 0, verticesCount);
+            short[] triangles = new short[trianglesCount];
+            System.arraycopy(polygonTriangles, trianglesOffset, triangles, 0, trianglesCount);
+            
+            pose.textures.add(texture);
+            pose.vertices.add(vertices);
+            pose.triangles.add(triangles);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+/**
+ * Picks a {@link GermRenderMode} from the population and camera zoom. The load
+ * has to pass a threshold by the hysteresis fraction before the mode changes,
+ * so populations near a threshold don't flicker between modes.
+ */
+public class GermRenderTiers {
+    public static final int DEFAULT_SPRITE_THRESHOLD = 1500;
+    public static final int DEFAULT_HEATMAP_THRESHOLD = 20000;
+    public static final float DEFAULT_HYSTERESIS = .1f;
+    private int spriteThreshold = DEFAULT_SPRITE_THRESHOLD;
+    private int heatmapThreshold = DEFAULT_HEATMAP_THRESHOLD;
+    private float hysteresis = DEFAULT_HYSTERESIS;
+    private GermRenderMode mode = GermRenderMode.SKELETON;
+    private boolean cachingPoses;
+    
+    /**
+     * Returns the mode for the given population and zoom. Zooming out raises
+     * the load, zooming in lowers it.
+     */
+    public GermRenderMode update(int population, float zoom) {
+        float load = population * zoom;
+        float up = 1.0f + hysteresis;
+        float down = 1.0f - hysteresis;
+        
+        boolean changed = true;
+        while (changed) {
+            changed = true;
+            if (mode == GermRenderMode.SKELETON && load > spriteThreshold * up) {
+                mode = GermRenderMode.SPRITE;
+            } else if (mode == GermRenderMode.SPRITE && load > heatmapThreshold * up) {
+                mode = GermRenderMode.HEATMAP;
+            } else if (mode == GermRenderMode.HEATMAP && load < heatmapThreshold * down) {
+                mode = GermRenderMode.SPRITE;
+            } else if (mode == GermRenderMode.SPRITE && load < spriteThreshold * down) {
+                mode = GermRenderMode.SKELETON;
+            } else {
+                changed = false;
+            }
+        }
+        
+        if (mode == GermRenderMode.SKELETON && cachingPoses) {
+            return GermRenderMode.POSE_CACHE;
+        }
+        return mode;
+    }
+
+    public GermRenderMode getMode() {
+        return mode;
+    }
+
+    public boolean isCachingPoses() {
+        return cachingPoses;
+    }
+
+    /**
+     * When true, the skeleton tier draws with {@link GermPoseCache} instead of
+     * posing every skeleton.
+     */
+    public void setCachingPoses(boolean cachingPoses) {
+        this.cachingPoses = cachingPoses;
+    }
+
+    public int getSpriteThreshold() {
+        return spriteThreshold;
+    }
+
+    public void setSpriteThreshold(int spriteThreshold) {
+        this.spriteThreshold = spriteThreshold;
+    }
+
+    public int getHeatmapThreshold() {
+        return heatmapThreshold;
+    }
+
+    public void setHeatmapThreshold(int heatmapThreshold) {
+        this.heatmapThreshold = heatmapThreshold;
+    }
+
+    public float getHysteresis() {
+        return hysteresis;
+    }
+
+    public void setHysteresis(float hysteresis) {
+        this.hysteresis = hysteresis;
+    }
+}
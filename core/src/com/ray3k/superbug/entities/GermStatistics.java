@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.ray3k.superbug.EntityView;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+
+/**
+ * Population counts kept up to date by {@link GermIndex} as germs are added,
+ * mutate and are disposed, so they can be read without scanning the entities.
+ */
+public class GermStatistics {
+    private int count;
+    private final int[] immunityCounts;
+    private final int[] resistanceCounts;
+
+    public GermStatistics() {
+        immunityCounts = new int[Immunity.COUNT];
+        resistanceCounts = new int[Immunity.COUNT + 1];
+    }
+    
+    void add(int immunities) {
+        count++;
+        resistanceCounts[Integer.bitCount(immunities)]++;
+        for (int i = 0; i < Immunity.COUNT; i++) {
+            if ((immunities & (1 << i)) != 0) {
+                immunityCounts[i]++;
+            }
+        }
+    }
+    
+    void remove(int immunities) {
+        count--;
+        resistanceCounts[Integer.bitCount(immunities)]--;
+        for (int i = 0; i < Immunity.COUNT; i++) {
+            if ((immunities & (1 << i)) != 0) {
+                immunityCounts[i]--;
+            }
+        }
+    }
+    
+    void clear() {
+        count = 0;
+        for (int i = 0; i < immunityCounts.length; i++) {
+            immunityCounts[i] = 0;
+        }
+        for (int i = 0; i < resistanceCounts.length; i++) {
+            resistanceCounts[i] = 0;
+        }
+    }
+    
+    /**
+     * Recounts the live germs in the given view and throws an
+     * IllegalStateException if the result differs from the tracked counts.
+     */
+    public void check(EntityView<GermEntity> germs) {
+        GermStatistics scan = new GermStatistics();
+        for (int i = 0; i < germs.size(); i++) {
+            GermEntity germ = germs.get(i);
+            if (!germ.isDestroyed()) {
+                scan.add(germ.getImmunities());
+            }
+        }
+        
+        if (scan.count != count) {
+            throw new IllegalStateException("Germ count is " + count + ", scan found " + scan.count + ".");
+        }
+        for (int i = 0; i < immunityCounts.length; i++) {
+            if (scan.immunityCounts[i] != immunityCounts[i]) {
+                throw new IllegalStateException(Immunity.VALUES[i] + " count is " + immunityCounts[i] + ", scan found " + scan.immunityCounts[i] + ".");
+            }
+        }
+        for (int i = 0; i < resistanceCounts.length; i++) {
+            if (scan.resistanceCounts[i] != resistanceCounts[i]) {
+                throw new IllegalStateException("Count of germs with " + i + " immunities is " + resistanceCounts[i] + ", scan found " + scan.resistanceCounts[i] + ".");
+            }
+        }
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    /**
+     * Returns the number of germs with the given immunity.
+     */
+    public int getImmunityCount(Immunity immunity) {
+        return immunityCounts[immunity.ordinal()];
+    }
+    
+    /**
+     * Returns the number of germs with exactly the given number of immunities.
+     */
+    public int getResistanceCount(int immunities) {
+        return resistanceCounts[immunities];
+    }
+    
+    /**
+     * Returns the most immunities held by any germ.
+     */
+    public int getMaxImmunities() {
+        for (int i = Immunity.COUNT; i > 0; i--) {
+            if (resistanceCounts[i] > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.math.Vector2;
+import com.ray3k.superbug.RandomStreams;
+import com.ray3k.superbug.SimulationContext;
+
+/**
+ * Per-worker state for moving germs: scratch vectors and random streams, so
+ * {@link ParallelGermUpdater} chunks share nothing. Splits and deaths don't go
+ * through workers, they are events on the context's timing wheel.
+ */
+public class GermWorker {
+    private final SimulationContext context;
+    final Vector2 temp;
+    final Vector2 temp2;
+    private RandomStreams random;
+
+    /**
+     * Creates a worker that uses the context's random streams.
+     */
+    public GermWorker(SimulationContext context) {
+        this(context, null);
+    }
+    
+    public GermWorker(SimulationContext context, RandomStreams random) {
+        this.context = context;
+        this.random = random;
+        temp = new Vector2();
+        temp2 = new Vector2();
+    }
+    
+
+    public RandomStreams getRandom() {
+        return random != null ? random : context.getRandom();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.entities;
+
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.superbug.Entity;
+import com.ray3k.superbug.ParallelUpdater;
+import com.ray3k.superbug.RandomStreams;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.SimulationRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moves germs and updates their skeletons on a ForkJoin pool. The germs are
+ * cut into fixed size chunks and every chunk gets its own {@link GermWorker},
+ * seeded from one number drawn on the main thread, so results only depend on
+ * the seed and not on the number of threads. Splits and deaths don't happen
+ * here, they fire from the timing wheel on the main thread.
+ */
+public class ParallelGermUpdater implements ParallelUpdater {
+    public static final int CHUNK_SIZE = 128;
+    private final SimulationContext context;
+    private final ForkJoinPool pool;
+    private Chunk[] chunks;
+    private int chunkCount;
+    private final Tick tick;
+    private Array<Entity> germs;
+    private float delta;
+
+    public ParallelGermUpdater(SimulationContext context) {
+        this(context, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public ParallelGermUpdater(SimulationContext context, int parallelism) {
+        this.context = context;
+        pool = new ForkJoinPool(parallelism);
+        chunks = new Chunk[0];
+        tick = new Tick();
+    }
+    
+    @Override
+    public boolean isParallel(Entity entity) {
+        return entity instanceof GermEntity;
+    }
+
+    @Override
+    public void act(Array<Entity> entities, float delta) {
+        germs = entities;
+        this.delta = delta;
+        
+        chunkCount = (entities.size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks.length < chunkCount) {
+            Chunk[] newChunks = new Chunk[chunkCount];
+            System.arraycopy(chunks, 0, newChunks, 0, chunks.length);
+            for (int i = chunks.length; i < chunkCount; i++) {
+                newChunks[i] = new Chunk();
+            }
+            chunks = newChunks;
+        }
+        
+        long seed = context.getRandom().spawn.nextLong();
+        for (int i = 0; i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+            chunk.reinitialize();
+            chunk.start = i * CHUNK_SIZE;
+            chunk.end = Math.min(chunk.start + CHUNK_SIZE, entities.size);
+            chunk.worker.getRandom().setSeed(SimulationRandom.mix(seed + i));
+        }
+        
+        tick.reinitialize();
+        pool.invoke(tick);
+        
+        germs = null;
+    }
+    
+    public void dispose() {
+        pool.shutdown();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+    
+    private class Tick extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        @Override
+        protected void compute() {
+            for (int i = 1; i < chunkCount; i++) {
+                chunks[i].fork();
+            }
+            
+            if (chunkCount > 0) {
+                chunks[0].invoke();
+            }
+            
+            for (int i = 1; i < chunkCount; i++) {
+                chunks[i].join();
+            }
+        }
+    }
+    
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private int start;
+        private int end;
+        private final GermWorker worker;
+
+        public Chunk() {
+            worker = new GermWorker(context, new RandomStreams(0));
+        }
+        
+        @Override
+        protected void compute() {
+            for (int i = start; i < end; i++) {
+                ((GermEntity) germs.get(i)).act(delta, worker);
+            }
+        }
+    }
+}
@@ -110,7 +110,7 @@ public class GameOverState extends State {
         twoColorPolygonBatch.setProjectionMatrix(gameCamera.combined);
         twoColorPolygonBatch.begin();
         twoColorPolygonBatch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        entityManager.draw(spriteBatch, delta);
+        entityManager.draw(spriteBatch, delta, gameCamera);
         twoColorPolygonBatch.end();
         
         stage.draw();
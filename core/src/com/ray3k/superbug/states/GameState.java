@@ -27,6 +27,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
@@ -42,15 +43,23 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
+import com.esotericsoftware.spine.SkeletonData;
 import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
 import com.ray3k.superbug.Core;
 import com.ray3k.superbug.Entity;
 import com.ray3k.superbug.EntityManager;
 import com.ray3k.superbug.InputManager;
+import com.ray3k.superbug.SimulationContext;
 import com.ray3k.superbug.State;
+import com.ray3k.superbug.TimingWheel;
 import com.ray3k.superbug.entities.DishEntity;
-import com.ray3k.superbug.entities.GameOverTimerEntity;
 import com.ray3k.superbug.entities.GermEntity;
+import com.ray3k.superbug.entities.GermFrames;
+import com.ray3k.superbug.entities.GermHeatmap;
+import com.ray3k.superbug.entities.GermPoseCache;
+import com.ray3k.superbug.entities.GermRenderMode;
+import com.ray3k.superbug.entities.GermRenderTiers;
+import com.ray3k.superbug.entities.ParallelGermUpdater;
 
 public class GameState extends State {
     private static GameState instance;
@@ -61,11 +70,17 @@ public class GameState extends State {
     private InputManager inputManager;
     private Skin skin;
     private Stage stage;
-    public static EntityManager entityManager;
     public static TextureAtlas spineAtlas;
-    public static TwoColorPolygonBatch twoColorPolygonBatch;
-    public static DishEntity dish;
-    private float time;
+    private final SimulationContext context = new SimulationContext();
+    private final GermRenderTiers germRenderTiers = new GermRenderTiers();
+    private boolean automaticRenderMode = true;
+    private ParallelGermUpdater parallelGermUpdater;
+    public static final String SIMULATION_THREAD_PROPERTY = "superbug.simulationThread";
+    public static final float FAST_FORWARD_TIME = 60.0f;
+    private boolean simulationThreaded;
+    private SimulationThread simulationThread;
+    private EntityManager renderEntityManager;
+    private TimingWheel timers;
     
     public static GameState inst() {
         return instance;
@@ -73,6 +88,7 @@ public class GameState extends State {
     
     public GameState(Core core) {
         super(core);
+        simulationThreaded = Boolean.getBoolean(SIMULATION_THREAD_PROPERTY);
     }
     
     @Override
@@ -82,6 +98,7 @@ public class GameState extends State {
         spineAtlas = Core.assetManager.get(Core.DATA_PATH + "/spine/superbug.atlas", TextureAtlas.class);
         
         score = 0;
+        timers = new TimingWheel(Core.instance.getTickDelta());
         
         inputManager = new InputManager();
         
@@ -99,20 +116,50 @@ public class GameState extends State {
         inputMultiplexer.addProcessor(stage);
         Gdx.input.setInputProcessor(inputMultiplexer);
         
-        entityManager = new EntityManager();
-        
-        twoColorPolygonBatch = new TwoColorPolygonBatch(3100);
+        createGermResources();
         
         createStageElements();
         
-        dish = new DishEntity();
-        dish.setPosition(-150.0f, 0.0f);
-        entityManager.addEntity(dish);
+        germRenderTiers.setCachingPoses(simulationThreaded);
+        startSimulation(MathUtils.random.nextLong());
         
-        GermEntity germ = new GermEntity();
-        entityManager.addEntity(germ);
+        if (simulationThreaded) {
+            simulationThread = new SimulationThread(context, Core.instance.getTickRate(), Core.instance.getMaxCatchUpTicks());
+            simulationThread.start();
+        }
+    }
+    
+    /**
+     * Creates the batch and germ render resources the first time the game
+     * starts. They are kept for later games and only disposed with the state.
+     */
+    private void createGermResources() {
+        if (context.getTwoColorPolygonBatch() != null) {
+            return;
+        }
         
-        time = 0.0f;
+        TwoColorPolygonBatch twoColorPolygonBatch = new TwoColorPolygonBatch(3100);
+        context.setTwoColorPolygonBatch(twoColorPolygonBatch);
+        SkeletonData bacteriaData = Core.assetManager.get(Core.DATA_PATH + "/spine/bacteria.json", SkeletonData.class);
+        context.setGermFrames(new GermFrames(bacteriaData, twoColorPolygonBatch, Core.skeletonRenderer));
+        context.setGermPoseCache(new GermPoseCache(bacteriaData, Core.skeletonRenderer));
+        context.setGermHeatmap(new GermHeatmap(GermEntity.PETRI_RADIUS * 2.0f + 32.0f, new Color(.4f, .75f, .25f, 1.0f)));
+    }
+    
+    /**
+     * Starts a new simulation in the context. See
+     * {@link SimulationContext#start(long)}. With the simulation thread on, the
+     * dish is kept apart on the render thread since only the UI animates it.
+     */
+    public void startSimulation(long seed) {
+        if (simulationThreaded) {
+            renderEntityManager = new EntityManager();
+            context.setCamera(null);
+        } else {
+            renderEntityManager = null;
+            context.setCamera(gameCamera);
+        }
+        context.start(seed, renderEntityManager);
     }
     
     private void createStageElements() {
@@ -142,6 +189,12 @@ public class GameState extends State {
         label.setName("resistanceLabel");
         table.add(label).right().padLeft(25.0f);
         
+        table.row();
+        label = new Label("SLOWED DOWN", skin, "game-small");
+        label.setName("slowLabel");
+        label.setVisible(false);
+        table.add(label).right();
+        
         root.row();
         table = new Table();
         root.add(table).colspan(2).right().expandY();
@@ -156,8 +209,13 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("confirm", .5f);
                 
-                GermEntity germ = new GermEntity();
-                entityManager.addEntity(germ);
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        GermEntity germ = GermEntity.obtain(context);
+                        context.getEntityManager().addEntity(germ);
+                    }
+                });
             }
         });
         
@@ -168,9 +226,14 @@ public class GameState extends State {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("squirt", .5f);
-                GermEntity.food = 1.0f;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        context.setFood(1.0f);
+                    }
+                });
                 
-                dish.getAnimationState().setAnimation(1, "agar", false);
+                context.getDish().getAnimationState().setAnimation(1, "agar", false);
             }
         });
         
@@ -189,22 +252,28 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 Slider slider = (Slider) actor;
                 
-                GermEntity.temperature = slider.getValue() / 100;
+                final float temperature = slider.getValue() / 100;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        context.setTemperature(temperature);
+                    }
+                });
                 
                 if (slider.getUserObject().equals("neutral")) {
                     if (slider.getValue() > 75f) {
                         playSound("flame", .5f);
                         slider.setUserObject("hot");
-                        dish.getAnimationState().setAnimation(2, "hot", false);
+                        context.getDish().getAnimationState().setAnimation(2, "hot", false);
                     } else if (slider.getValue() < 25f) {
                         playSound("fan", .5f);
                         slider.setUserObject("cold");
-                        dish.getAnimationState().setAnimation(2, "cold", false);
+                        context.getDish().getAnimationState().setAnimation(2, "cold", false);
                     }
                 } else {
                     if (slider.getValue() > 40f && slider.getValue() < 60f) {
                         slider.setUserObject("neutral");
-                        dish.getAnimationState().setAnimation(2, "normal", false);
+                        context.getDish().getAnimationState().setAnimation(2, "normal", false);
                     }
                 }
             }
@@ -224,6 +293,15 @@ public class GameState extends State {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 Slider slider = (Slider) actor;
+                
+                final float value = slider.getValue();
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        context.setRadiation(value);
+                    }
+                });
+                
                 if (slider.getUserObject().equals("neutral")) {
                     if (slider.getValue() > 75f) {
                         playSound("whir", .5f);
@@ -246,19 +324,9 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("drip", .5f);
                 
-                dish.getAnimationState().setAnimation(1, "medicine", false);
+                context.getDish().getAnimationState().setAnimation(1, "medicine", false);
                 
-                for (Entity entity : entityManager.getEntities()) {
-                    if (entity instanceof GermEntity) {
-                        GermEntity germ = (GermEntity) entity;
-                        
-                        if (!germ.immunities.contains(GermEntity.Immunity.PENICILLIN, false)) {
-                            if (MathUtils.randomBoolean(.75f)) germ.dispose();
-                        } else {
-                            if (MathUtils.randomBoolean(.05f)) germ.dispose();
-                        }
-                    }
-                }
+                treat(GermEntity.Immunity.PENICILLIN);
             }
         });
         
@@ -270,19 +338,9 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("drip", .5f);
                 
-                dish.getAnimationState().setAnimation(1, "medicine", false);
+                context.getDish().getAnimationState().setAnimation(1, "medicine", false);
                 
-                for (Entity entity : entityManager.getEntities()) {
-                    if (entity instanceof GermEntity) {
-                        GermEntity germ = (GermEntity) entity;
-                        
-                        if (!germ.immunities.contains(GermEntity.Immunity.CEPHALEXIN, false)) {
-                            if (MathUtils.randomBoolean(.75f)) germ.dispose();
-                        } else {
-                            if (MathUtils.randomBoolean(.05f)) germ.dispose();
-                        }
-                    }
-                }
+                treat(GermEntity.Immunity.CEPHALEXIN);
             }
         });
         
@@ -294,19 +352,9 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("drip", .5f);
                 
-                dish.getAnimationState().setAnimation(1, "medicine", false);
+                context.getDish().getAnimationState().setAnimation(1, "medicine", false);
                 
-                for (Entity entity : entityManager.getEntities()) {
-                    if (entity instanceof GermEntity) {
-                        GermEntity germ = (GermEntity) entity;
-                        
-                        if (!germ.immunities.contains(GermEntity.Immunity.TETRACYCLINE, false)) {
-                            if (MathUtils.randomBoolean(.75f)) germ.dispose();
-                        } else {
-                            if (MathUtils.randomBoolean(.05f)) germ.dispose();
-                        }
-                    }
-                }
+                treat(GermEntity.Immunity.TETRACYCLINE);
             }
         });
         
@@ -319,19 +367,9 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("spray", .5f);
                 
-                dish.getAnimationState().setAnimation(1, "peroxide", false);
+                context.getDish().getAnimationState().setAnimation(1, "peroxide", false);
                 
-                for (Entity entity : entityManager.getEntities()) {
-                    if (entity instanceof GermEntity) {
-                        GermEntity germ = (GermEntity) entity;
-                        
-                        if (!germ.immunities.contains(GermEntity.Immunity.PEROXIDE, false)) {
-                            if (MathUtils.randomBoolean(.75f)) germ.dispose();
-                        } else {
-                            if (MathUtils.randomBoolean(.05f)) germ.dispose();
-                        }
-                    }
-                }
+                treat(GermEntity.Immunity.PEROXIDE);
             }
         });
         
@@ -343,19 +381,9 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("spray", .5f);
                 
-                dish.getAnimationState().setAnimation(1, "medicine", false);
+                context.getDish().getAnimationState().setAnimation(1, "medicine", false);
                 
-                for (Entity entity : entityManager.getEntities()) {
-                    if (entity instanceof GermEntity) {
-                        GermEntity germ = (GermEntity) entity;
-                        
-                        if (!germ.immunities.contains(GermEntity.Immunity.ALCOHOL, false)) {
-                            if (MathUtils.randomBoolean(.75f)) germ.dispose();
-                        } else {
-                            if (MathUtils.randomBoolean(.05f)) germ.dispose();
-                        }
-                    }
-                }
+                treat(GermEntity.Immunity.ALCOHOL);
             }
         });
         
@@ -367,19 +395,9 @@ public class GameState extends State {
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 playSound("spray", .5f);
                 
-                dish.getAnimationState().setAnimation(1, "bleach", false);
+                context.getDish().getAnimationState().setAnimation(1, "bleach", false);
                 
-                for (Entity entity : entityManager.getEntities()) {
-                    if (entity instanceof GermEntity) {
-                        GermEntity germ = (GermEntity) entity;
-                        
-                        if (!germ.immunities.contains(GermEntity.Immunity.BLEACH, false)) {
-                            if (MathUtils.randomBoolean(.75f)) germ.dispose();
-                        } else {
-                            if (MathUtils.randomBoolean(.05f)) germ.dispose();
-                        }
-                    }
-                }
+                treat(GermEntity.Immunity.BLEACH);
             }
         });
     }
@@ -389,116 +407,241 @@ public class GameState extends State {
         Gdx.gl.glClearColor(255 / 255.0f, 255 / 255.0f, 255 / 255.0f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         
+        SimulationSnapshot snapshot = simulationThread == null ? null : simulationThread.getSnapshot();
+        if (automaticRenderMode) {
+            int population = snapshot == null ? context.getGermCount() : snapshot.getGermCount();
+            context.setGermRenderMode(germRenderTiers.update(population, gameCamera.zoom));
+        }
+        
+        TwoColorPolygonBatch twoColorPolygonBatch = context.getTwoColorPolygonBatch();
+        
         gameCamera.update();
         twoColorPolygonBatch.setProjectionMatrix(gameCamera.combined);
         twoColorPolygonBatch.begin();
         twoColorPolygonBatch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
-        entityManager.draw(spriteBatch, delta);
+        if (snapshot == null) {
+            context.getEntityManager().draw(spriteBatch, delta, gameCamera);
+            GermHeatmap germHeatmap = context.getGermHeatmap();
+            if (context.getGermRenderMode() == GermRenderMode.HEATMAP && germHeatmap != null) {
+                germHeatmap.update(context.getEntityManager().getEntities(GermEntity.class), context.getDish().getX(), context.getDish().getY());
+                germHeatmap.draw(twoColorPolygonBatch);
+            }
+        } else {
+            renderEntityManager.draw(spriteBatch, delta, gameCamera);
+            drawSnapshot(snapshot);
+        }
         twoColorPolygonBatch.end();
         
         stage.draw();
     }
-
-    @Override
-    public void act(float delta) {
-        time += delta;
-        
-        Slider slider = stage.getRoot().findActor("radiationSlider");
-        if (slider.getValue() > 75.0f) {
-            for (Entity entity : entityManager.getEntities()) {
-                if (entity instanceof GermEntity) {
-                    GermEntity germ = (GermEntity) entity;
-                    if (!germ.immunities.contains(GermEntity.Immunity.RADIATION, false)) {
-                        if (MathUtils.randomBoolean(.01f)) {
-                            germ.dispose();
-                        }
-                    }
-                }
-            }
-        }
-        
-        slider = stage.getRoot().findActor("temperatureSlider");
-        if (slider.getValue() > 75.0f) {
-            for (Entity entity : entityManager.getEntities()) {
-                if (entity instanceof GermEntity) {
-                    GermEntity germ = (GermEntity) entity;
-                    if (!germ.immunities.contains(GermEntity.Immunity.HOT, false)) {
-                        if (MathUtils.randomBoolean(.01f)) {
-                            germ.dispose();
-                        }
-                    }
+    
+    /**
+     * Draws the germs published by the simulation thread. Their skeletons
+     * belong to that thread, so they are drawn from the pose cache instead.
+     */
+    private void drawSnapshot(SimulationSnapshot snapshot) {
+        TwoColorPolygonBatch twoColorPolygonBatch = context.getTwoColorPolygonBatch();
+        GermRenderMode germRenderMode = context.getGermRenderMode();
+        if (germRenderMode == GermRenderMode.HEATMAP) {
+            context.getGermHeatmap().update(snapshot, context.getDish().getX(), context.getDish().getY());
+            context.getGermHeatmap().draw(twoColorPolygonBatch);
+        } else {
+            GermFrames germFrames = context.getGermFrames();
+            GermPoseCache germPoseCache = context.getGermPoseCache();
+            float alpha = snapshot.getAlpha(System.nanoTime(), simulationThread.getNanosPerTick());
+            boolean sprites = germRenderMode == GermRenderMode.SPRITE;
+            for (int i = 0; i < snapshot.size(); i++) {
+                float x = snapshot.getX(i, alpha);
+                float y = snapshot.getY(i, alpha);
+                if (sprites) {
+                    germFrames.draw(twoColorPolygonBatch, snapshot.getSkin(i), snapshot.getAnimationTime(i), x, y, snapshot.getRotation(i));
+                } else {
+                    germPoseCache.draw(twoColorPolygonBatch, snapshot.getSkin(i), snapshot.getAnimationTime(i), x, y, snapshot.getRotation(i));
                 }
             }
         }
-        
-        if (slider.getValue() < 25.0f) {
-            for (Entity entity : entityManager.getEntities()) {
-                if (entity instanceof GermEntity) {
-                    GermEntity germ = (GermEntity) entity;
-                    if (!germ.immunities.contains(GermEntity.Immunity.COLD, false)) {
-                        if (MathUtils.randomBoolean(.01f)) {
-                            germ.dispose();
-                        }
-                    }
-                }
-            }
+    }
+
+    @Override
+    public void act(float delta) {
+        int population;
+        int immunities;
+        float elapsed;
+        boolean slowedDown;
+        if (simulationThread == null) {
+            simulate(delta);
+            population = context.getGermCount();
+            immunities = context.getMaxImmunities();
+            elapsed = context.getTime();
+            slowedDown = Core.instance != null && Core.instance.isSlowedDown();
+        } else {
+            simulationThread.checkFailure();
+            SimulationSnapshot snapshot = simulationThread.getSnapshot();
+            population = snapshot.getGermCount();
+            immunities = snapshot.getMaxImmunities();
+            elapsed = snapshot.getTime();
+            slowedDown = simulationThread.isSlowedDown();
+            renderEntityManager.act(delta);
         }
         
-        GermEntity.food -= .01f * delta;
-        GermEntity.food = MathUtils.clamp(GermEntity.food, 0.0f, 1.0f);
+        timers.setTickDuration(delta);
+        timers.advance();
         
-        GermEntity.germCount = 0;
-        int immunityCounter = 0;
-        for (Entity entity : entityManager.getEntities()) {
-            if (entity instanceof GermEntity) {
-                GermEntity.germCount++;
-                
-                GermEntity germ = (GermEntity) entity;
-                if (germ.immunities.size > immunityCounter) {
-                    immunityCounter = germ.immunities.size;
-                }
-            }
-        }
-        
-        if (immunityCounter == GermEntity.Immunity.values().length) {
+        if (immunities == GermEntity.Immunity.COUNT) {
+            DishEntity dish = context.getDish();
             if (!dish.getAnimationState().getCurrent(0).getAnimation().getName().equals("cracked")) {
                 dish.getAnimationState().setAnimation(0, "cracked", true);
-                entityManager.addEntity(new GameOverTimerEntity(5.0f));
-                ((GameOverState) Core.stateManager.getState("game-over")).setTime(time);
+                timers.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        gameOver();
+                    }
+                }, 5.0f);
+                ((GameOverState) Core.stateManager.getState("game-over")).setTime(elapsed);
                 playSound("crack");
             }
         }
         
         Label label = stage.getRoot().findActor("populationLabel");
-        label.setText(Integer.toString(GermEntity.germCount));
+        label.setText(Integer.toString(population));
         
         
         TextButton textButton = stage.getRoot().findActor("newSampleButton");
-        textButton.setDisabled(GermEntity.germCount != 0);
+        textButton.setDisabled(population != 0);
         
-        int resistance = (int) ((float) immunityCounter / GermEntity.Immunity.values().length * 100);
+        int resistance = (int) ((float) immunities / GermEntity.Immunity.COUNT * 100);
         
         label = stage.getRoot().findActor("resistanceLabel");
         label.setText(Integer.toString(resistance) + "%");
         
-        entityManager.act(delta);
+        label = stage.getRoot().findActor("slowLabel");
+        label.setVisible(slowedDown);
         
         stage.act(delta);
         
+        if (Gdx.input.isKeyJustPressed(Keys.F2)) {
+            //automatic, then each mode in turn
+            GermRenderMode germRenderMode = context.getGermRenderMode();
+            if (automaticRenderMode) {
+                automaticRenderMode = false;
+                germRenderMode = GermRenderMode.values()[0];
+            } else if (germRenderMode.ordinal() + 1 < GermRenderMode.values().length) {
+                germRenderMode = GermRenderMode.values()[germRenderMode.ordinal() + 1];
+            } else {
+                automaticRenderMode = true;
+            }
+            
+            if (simulationThread != null && germRenderMode == GermRenderMode.SKELETON) {
+                germRenderMode = GermRenderMode.POSE_CACHE;
+            }
+            context.setGermRenderMode(germRenderMode);
+        }
+        
+        if (Gdx.input.isKeyJustPressed(Keys.F3)) {
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    context.fastForward(FAST_FORWARD_TIME);
+                }
+            });
+        }
+        
         if (Gdx.input.isKeyPressed(Keys.ESCAPE)) {
             Core.stateManager.loadState("menu");
         }
     }
-
+    
+    private void gameOver() {
+        ((GameOverState) Core.stateManager.getState("game-over")).setScore(score);
+        Core.stateManager.loadState("game-over");
+    }
+    
+    /**
+     * Steps the simulation by one tick without touching the Stage, so it can
+     * also be run headless.
+     */
+    public void simulate(float delta) {
+        context.step(delta);
+    }
+    
+    /**
+     * Runs the command on the simulation thread before its next tick, or right
+     * away when there is no simulation thread. Anything the UI changes in the
+     * simulation has to go through here.
+     */
+    public void post(Runnable command) {
+        if (simulationThread == null) {
+            command.run();
+        } else {
+            simulationThread.post(command);
+        }
+    }
+    
+    /**
+     * Applies the treatment through {@link #post(Runnable)}.
+     */
+    private void treat(final GermEntity.Immunity immunity) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                context.treat(immunity);
+            }
+        });
+    }
+    
     @Override
     public void dispose() {
-        if (twoColorPolygonBatch != null) {
-            twoColorPolygonBatch.dispose();
+        if (context.getTwoColorPolygonBatch() != null) {
+            context.getTwoColorPolygonBatch().dispose();
+            context.setTwoColorPolygonBatch(null);
+        }
+        
+        if (context.getGermFrames() != null) {
+            context.getGermFrames().dispose();
+            context.setGermFrames(null);
+        }
+        
+        if (context.getGermHeatmap() != null) {
+            context.getGermHeatmap().dispose();
+            context.setGermHeatmap(null);
+        }
+        
+        if (context.getGermPoseCache() != null) {
+            context.getGermPoseCache().dispose();
+            context.setGermPoseCache(null);
+        }
+        
+        stopSimulationThread();
+        setGermThreads(0);
+    }
+    
+    private void stopSimulationThread() {
+        if (simulationThread != null) {
+            simulationThread.shutdown();
+            simulationThread = null;
+        }
+    }
+    
+    /**
+     * Updates germs on the given number of threads. 0 updates them on the
+     * calling thread like every other entity.
+     */
+    public void setGermThreads(int threads) {
+        if (parallelGermUpdater != null) {
+            parallelGermUpdater.dispose();
+            parallelGermUpdater = null;
+        }
+        
+        if (threads > 0) {
+            parallelGermUpdater = new ParallelGermUpdater(context, threads);
         }
+        
+        context.setParallelUpdater(parallelGermUpdater);
     }
 
     @Override
     public void stop() {
+        stopSimulationThread();
         stage.dispose();
     }
     
@@ -542,6 +685,63 @@ public class GameState extends State {
     public Stage getStage() {
         return stage;
     }
+
+    public SimulationContext getContext() {
+        return context;
+    }
+
+    public float getTime() {
+        return context.getTime();
+    }
+
+    public float getRadiation() {
+        return context.getRadiation();
+    }
+
+    public void setRadiation(float radiation) {
+        context.setRadiation(radiation);
+    }
+
+    public int getMaxImmunities() {
+        return context.getMaxImmunities();
+    }
+
+    public GermRenderTiers getGermRenderTiers() {
+        return germRenderTiers;
+    }
+
+    public boolean isAutomaticRenderMode() {
+        return automaticRenderMode;
+    }
+
+    /**
+     * When true, the context's germ render mode is chosen by the render tiers
+     * every frame.
+     */
+    public void setAutomaticRenderMode(boolean automaticRenderMode) {
+        this.automaticRenderMode = automaticRenderMode;
+    }
+
+    public boolean isCheckingStatistics() {
+        return context.isCheckingStatistics();
+    }
+
+    public void setCheckingStatistics(boolean checkingStatistics) {
+        context.setCheckingStatistics(checkingStatistics);
+    }
+
+    public boolean isSimulationThreaded() {
+        return simulationThreaded;
+    }
+
+    /**
+     * When true, the next {@link #start()} runs the simulation on its own
+     * {@link SimulationThread}. Defaults to the
+     * {@value #SIMULATION_THREAD_PROPERTY} system property.
+     */
+    public void setSimulationThreaded(boolean simulationThreaded) {
+        this.simulationThreaded = simulationThreaded;
+    }
     
     public void playSound(String name) {
         playSound(name, 1.0f, 1.0f);
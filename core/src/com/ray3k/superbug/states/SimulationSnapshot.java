@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.states;
+
+import com.ray3k.superbug.EntityView;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.entities.GermEntity;
+
+/**
+ * Everything the render thread needs to draw one tick of a
+ * {@link SimulationThread}: the germs' positions, skins and animation times
+ * and the values shown on the HUD. A snapshot is only written by the
+ * simulation thread before it is published and is read-only afterwards, until
+ * the render thread hands it back for reuse.
+ */
+public class SimulationSnapshot {
+    private long tick;
+    private long nanos;
+    private int size;
+    private float[] x = new float[0];
+    private float[] y = new float[0];
+    private float[] previousX = new float[0];
+    private float[] previousY = new float[0];
+    private float[] rotation = new float[0];
+    private float[] animationTime = new float[0];
+    private int[] skin = new int[0];
+    private int germCount;
+    private int maxImmunities;
+    private float time;
+    
+    /**
+     * Copies the state of the simulation at the end of the given tick. The
+     * arrays are reused and only grow, so a steady population allocates
+     * nothing.
+     */
+    void capture(SimulationContext context, EntityView<GermEntity> germs, long tick) {
+        this.tick = tick;
+        nanos = System.nanoTime();
+        germCount = context.getGermCount();
+        maxImmunities = context.getMaxImmunities();
+        time = context.getTime();
+        
+        if (x.length < germs.size()) {
+            int capacity = germs.size() + germs.size() / 4 + 16;
+            x = new float[capacity];
+            y = new float[capacity];
+            previousX = new float[capacity];
+            previousY = new float[capacity];
+            rotation = new float[capacity];
+            animationTime = new float[capacity];
+            skin = new int[capacity];
+        }
+        
+        size = 0;
+        for (int i = 0; i < germs.size(); i++) {
+            GermEntity germ = germs.get(i);
+            if (!germ.isDestroyed()) {
+                x[size] = germ.getX();
+                y[size] = germ.getY();
+                previousX[size] = germ.getInterpolatedX(0.0f);
+                previousY[size] = germ.getInterpolatedY(0.0f);
+                rotation[size] = germ.getHipRotation();
+                animationTime[size] = germ.getAnimationTime();
+                skin[size] = germ.getSkin();
+                size++;
+            }
+        }
+    }
+    
+    /**
+     * Returns how far the render clock is between this tick and the next one,
+     * from 0 to 1.
+     */
+    public float getAlpha(long nanos, long nanosPerTick) {
+        float alpha = (float) (nanos - this.nanos) / nanosPerTick;
+        return Math.max(0.0f, Math.min(1.0f, alpha));
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int size() {
+        return size;
+    }
+    
+    public float getX(int index, float alpha) {
+        return previousX[index] + (x[index] - previousX[index]) * alpha;
+    }
+    
+    public float getY(int index, float alpha) {
+        return previousY[index] + (y[index] - previousY[index]) * alpha;
+    }
+    
+    public float getRotation(int index) {
+        return rotation[index];
+    }
+    
+    public float getAnimationTime(int index) {
+        return animationTime[index];
+    }
+    
+    public int getSkin(int index) {
+        return skin[index];
+    }
+
+    public int getGermCount() {
+        return germCount;
+    }
+
+    public int getMaxImmunities() {
+        return maxImmunities;
+    }
+
+    public float getTime() {
+        return time;
+    }
+}
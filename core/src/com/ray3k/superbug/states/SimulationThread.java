@@ -0,0 +1,184 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.states;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.ray3k.superbug.EntityView;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.entities.GermEntity;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps a {@link SimulationContext} on its own thread at a fixed tick rate.
+ * Once the thread is started it owns the context's entities, germ index and
+ * environment. Other threads only see them through the
+ * snapshots published at the end of every tick, and only change them through
+ * commands posted with {@link #post(Runnable)}, which run at the start of the
+ * next tick.
+ * <p>
+ * Snapshots are triple buffered. The simulation fills its back snapshot and
+ * swaps it with the shared one, and the render thread swaps its front snapshot
+ * with the shared one when that is newer. Neither side ever waits on the other.
+ */
+public class SimulationThread extends Thread {
+    /**
+     * How long {@link #isSlowedDown()} stays true after ticks are dropped, so
+     * a warning shown from it doesn't flicker on and off between frames.
+     */
+    public static final long SLOWED_DOWN_NANOS = 1000000000L;
+    private final SimulationContext context;
+    private final EntityView<GermEntity> germs;
+    private final long nanosPerTick;
+    private final float delta;
+    private final int maxCatchUpTicks;
+    private final ConcurrentLinkedQueue<Runnable> commands;
+    private final AtomicReference<SimulationSnapshot> shared;
+    private SimulationSnapshot back;
+    private SimulationSnapshot front;
+    private long tick;
+    private volatile boolean running;
+    private volatile long slowedDownUntil;
+    private volatile Throwable failure;
+    
+    /**
+     * Must be created on the thread that set up the simulation, which captures
+     * the first snapshot so there is always one to draw.
+     */
+    public SimulationThread(SimulationContext context, int ticksPerSecond, int maxCatchUpTicks) {
+        super("simulation");
+        setDaemon(true);
+        this.context = context;
+        germs = context.getEntityManager().getEntities(GermEntity.class);
+        nanosPerTick = 1000000000L / ticksPerSecond;
+        delta = nanosPerTick / 1000000000.0f;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        commands = new ConcurrentLinkedQueue<Runnable>();
+        
+        front = new SimulationSnapshot();
+        front.capture(context, germs, tick);
+        shared = new AtomicReference<SimulationSnapshot>(new SimulationSnapshot());
+        back = new SimulationSnapshot();
+        slowedDownUntil = System.nanoTime();
+        running = true;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            long next = System.nanoTime();
+            while (running) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                
+                runCommands();
+                context.step(delta);
+                publish();
+                
+                next += nanosPerTick;
+                //drop whatever can't be caught up so slow ticks don't snowball
+                long now = System.nanoTime();
+                if (now - next >= maxCatchUpTicks * nanosPerTick) {
+                    next = now;
+                    slowedDownUntil = now + SLOWED_DOWN_NANOS;
+                }
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+    
+    private void runCommands() {
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+        }
+    }
+    
+    private void publish() {
+        back.capture(context, germs, ++tick);
+        back = shared.getAndSet(back);
+    }
+    
+    /**
+     * Queues a command to run on the simulation thread before the next tick.
+     */
+    public void post(Runnable command) {
+        commands.add(command);
+    }
+    
+    /**
+     * Returns the newest published snapshot. Only the render thread may call
+     * this, and the snapshot stays valid until its next call.
+     */
+    public SimulationSnapshot getSnapshot() {
+        if (shared.get().getTick() > front.getTick()) {
+            front = shared.getAndSet(front);
+        }
+        return front;
+    }
+    
+    /**
+     * Throws on the calling thread if the simulation stopped with an
+     * exception.
+     */
+    public void checkFailure() {
+        if (failure != null) {
+            throw new GdxRuntimeException("Simulation thread failed", failure);
+        }
+    }
+    
+    /**
+     * Stops the thread after the current tick and waits for it to finish.
+     * Commands that haven't run yet are dropped.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(this);
+        try {
+            join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commands.clear();
+    }
+
+    public long getNanosPerTick() {
+        return nanosPerTick;
+    }
+
+    /**
+     * Returns true if the simulation fell too far behind the clock and
+     * dropped ticks within the last {@link #SLOWED_DOWN_NANOS}.
+     */
+    public boolean isSlowedDown() {
+        return System.nanoTime() - slowedDownUntil < 0;
+    }
+}
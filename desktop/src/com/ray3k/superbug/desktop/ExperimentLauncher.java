@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.desktop;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.ray3k.superbug.entities.GermEntity;
+import java.io.File;
+
+/**
+ * Command line entry for {@link ExperimentRunner}. Arguments are key=value
+ * pairs. The sweep keys take comma separated lists and every combination of
+ * them is run.
+ */
+public class ExperimentLauncher {
+    private static final String USAGE = "Usage: ExperimentLauncher [key=value ...]\n"
+            + "  runs=100                runs per combination\n"
+            + "  seed=0                  seed of the first run, run i uses seed + i\n"
+            + "  ticks=60000             most ticks per run\n"
+            + "  threads=<cores>         worker threads\n"
+            + "  out=experiments.csv     results file\n"
+            + "  germLimit=2000,...      sweep\n"
+            + "  mutationChance=0.005,...\n"
+            + "  splitTimeRandom=2,...\n"
+            + "  deathTimeRandom=10,...\n"
+            + "  schedule=none,...       see TreatmentSchedule, e.g. 30:PENICILLIN+60:BLEACH/20";
+    
+    public static void main(String[] arg) {
+        int runs = 100;
+        long seed = 0;
+        int ticks = 60000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        File output = new File("experiments.csv");
+        FloatArray germLimits = FloatArray.with(2000);
+        FloatArray mutationChances = FloatArray.with(GermEntity.MUTATION_CHANCE);
+        FloatArray splitTimeRandoms = FloatArray.with(GermEntity.SPLIT_TIME_RANDOM);
+        FloatArray deathTimeRandoms = FloatArray.with(GermEntity.DEATH_TIME_RANDOM);
+        Array<TreatmentSchedule> schedules = Array.with(TreatmentSchedule.NONE);
+        
+        for (String argument : arg) {
+            int equals = argument.indexOf('=');
+            if (equals < 0) {
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+            
+            String key = argument.substring(0, equals);
+            String value = argument.substring(equals + 1);
+            if (key.equals("runs")) {
+                runs = Integer.parseInt(value);
+            } else if (key.equals("seed")) {
+                seed = Long.parseLong(value);
+            } else if (key.equals("ticks")) {
+                ticks = Integer.parseInt(value);
+            } else if (key.equals("threads")) {
+                threads = Integer.parseInt(value);
+            } else if (key.equals("out")) {
+                output = new File(value);
+            } else if (key.equals("germLimit")) {
+                germLimits = parseFloats(value);
+            } else if (key.equals("mutationChance")) {
+                mutationChances = parseFloats(value);
+            } else if (key.equals("splitTimeRandom")) {
+                splitTimeRandoms = parseFloats(value);
+            } else if (key.equals("deathTimeRandom")) {
+                deathTimeRandoms = parseFloats(value);
+            } else if (key.equals("schedule")) {
+                schedules = new Array<TreatmentSchedule>();
+                for (String schedule : value.split(",")) {
+                    schedules.add(TreatmentSchedule.parse(schedule));
+                }
+            } else {
+                System.err.println("Unknown key: " + key);
+                System.err.println(USAGE);
+                System.exit(1);
+            }
+        }
+        
+        Array<ExperimentParameters> parameters = new Array<ExperimentParameters>();
+        for (int a = 0; a < germLimits.size; a++) {
+            for (int b = 0; b < mutationChances.size; b++) {
+                for (int c = 0; c < splitTimeRandoms.size; c++) {
+                    for (int d = 0; d < deathTimeRandoms.size; d++) {
+                        for (int e = 0; e < schedules.size; e++) {
+                            parameters.add(new ExperimentParameters(germLimits.get(a), mutationChances.get(b), splitTimeRandoms.get(c), deathTimeRandoms.get(d), schedules.get(e)));
+                        }
+                    }
+                }
+            }
+        }
+        
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        new HeadlessApplication(new ExperimentRunner(parameters, runs, seed, ticks, threads, output), config);
+    }
+    
+    private static FloatArray parseFloats(String value) {
+        FloatArray values = new FloatArray();
+        for (String part : value.split(",")) {
+            values.add(Float.parseFloat(part));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.desktop;
+
+import com.ray3k.superbug.SimulationContext;
+
+/**
+ * One point of a parameter sweep.
+ */
+public class ExperimentParameters {
+    public static final String CSV_HEADER = "germLimit,mutationChance,splitTimeRandom,deathTimeRandom,schedule";
+    private final float germLimit;
+    private final float mutationChance;
+    private final float splitTimeRandom;
+    private final float deathTimeRandom;
+    private final TreatmentSchedule schedule;
+
+    public ExperimentParameters(float germLimit, float mutationChance, float splitTimeRandom, float deathTimeRandom, TreatmentSchedule schedule) {
+        this.germLimit = germLimit;
+        this.mutationChance = mutationChance;
+        this.splitTimeRandom = splitTimeRandom;
+        this.deathTimeRandom = deathTimeRandom;
+        this.schedule = schedule;
+    }
+    
+    /**
+     * Sets the parameters on a context. They are kept by
+     * {@link SimulationContext#start(long)}.
+     */
+    public void apply(SimulationContext context) {
+        context.setGermLimit(germLimit);
+        context.setMutationChance(mutationChance);
+        context.setSplitTimeRandom(splitTimeRandom);
+        context.setDeathTimeRandom(deathTimeRandom);
+    }
+
+    public float getGermLimit() {
+        return germLimit;
+    }
+
+    public float getMutationChance() {
+        return mutationChance;
+    }
+
+    public float getSplitTimeRandom() {
+        return splitTimeRandom;
+    }
+
+    public float getDeathTimeRandom() {
+        return deathTimeRandom;
+    }
+
+    public TreatmentSchedule getSchedule() {
+        return schedule;
+    }
+    
+    /**
+     * Returns the parameters as CSV columns matching {@link #CSV_HEADER}.
+     */
+    public String toCsv() {
+        return germLimit + "," + mutationChance + "," + splitTimeRandom + "," + deathTimeRandom + "," + schedule;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.ray3k.superbug.Core;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every combination of parameters a number of times, each run a seeded
+ * {@link SimulationContext} of its own, spread over a fixed thread pool. Run i
+ * of every combination uses the same seed, so combinations are compared on
+ * the same random streams. A run ends when the dish is fully resistant, the
+ * same condition that cracks the dish in game, when every germ is dead or
+ * after the tick limit. Each result is written to the results file as soon as
+ * it finishes and a summary per combination is printed at the end.
+ */
+public class ExperimentRunner extends ApplicationAdapter {
+    private static final float DELTA = 1.0f / Core.DEFAULT_TICKS_PER_SECOND;
+    private static final int FLUSH_INTERVAL = 100;
+    private final Array<ExperimentParameters> parameters;
+    private final int runs;
+    private final long seed;
+    private final int maxTicks;
+    private final int threads;
+    private final File output;
+
+    public ExperimentRunner(Array<ExperimentParameters> parameters, int runs, long seed, int maxTicks, int threads, File output) {
+        this.parameters = parameters;
+        this.runs = runs;
+        this.seed = seed;
+        this.maxTicks = maxTicks;
+        this.threads = threads;
+        this.output = output;
+    }
+    
+    @Override
+    public void create() {
+        Core.loadHeadlessAssets();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        PrintWriter writer = null;
+        try {
+            writer = new PrintWriter(new BufferedWriter(new FileWriter(output)));
+            writer.println("combination," + ExperimentParameters.CSV_HEADER + ",run,seed,ticks,resistantTime,extinctTime,population,maxImmunities");
+            
+            ExecutorCompletionService<Result> completion = new ExecutorCompletionService<Result>(executor);
+            for (int i = 0; i < parameters.size; i++) {
+                for (int run = 0; run < runs; run++) {
+                    completion.submit(new Experiment(i, run));
+                }
+            }
+            
+            Summary[] summaries = new Summary[parameters.size];
+            for (int i = 0; i < summaries.length; i++) {
+                summaries[i] = new Summary();
+            }
+            
+            int total = parameters.size * runs;
+            long start = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                Result result = completion.take().get();
+                writer.println(result.toCsv(parameters.get(result.combination)));
+                summaries[result.combination].add(result);
+                
+                if ((i + 1) % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                    System.out.println((i + 1) + "/" + total + " runs");
+                }
+            }
+            writer.flush();
+            
+            System.out.println(total + " runs in " + String.format("%.1f", (System.nanoTime() - start) / 1000000000.0) + "s on " + threads + " threads");
+            System.out.println("Results: " + output.getAbsolutePath());
+            System.out.println();
+            System.out.println("combination," + ExperimentParameters.CSV_HEADER + "," + Summary.CSV_HEADER);
+            for (int i = 0; i < summaries.length; i++) {
+                System.out.println(i + "," + parameters.get(i).toCsv() + "," + summaries[i].toCsv());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Can't write results to " + output, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Experiment failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        
+        Gdx.app.exit();
+    }
+    
+    @Override
+    public void dispose() {
+        Core.assetManager.dispose();
+    }
+    
+    /**
+     * Runs one seeded simulation to completion.
+     */
+    public static Result run(ExperimentParameters parameters, long seed, int maxTicks) {
+        SimulationContext context = new SimulationContext();
+        parameters.apply(context);
+        context.start(seed);
+        
+        Result result = new Result();
+        result.seed = seed;
+        while (result.ticks < maxTicks) {
+            float previousTime = context.getTime();
+            context.step(DELTA);
+            parameters.getSchedule().apply(context, previousTime, context.getTime());
+            result.ticks++;
+            
+            if (context.getMaxImmunities() == Immunity.COUNT) {
+                result.resistantTime = context.getTime();
+                break;
+            } else if (context.getGermIndex().size() == 0) {
+                result.extinctTime = context.getTime();
+                break;
+            }
+        }
+        
+        result.population = context.getGermIndex().size();
+        result.maxImmunities = context.getMaxImmunities();
+        return result;
+    }
+    
+    private class Experiment implements Callable<Result> {
+        private final int combination;
+        private final int run;
+
+        public Experiment(int combination, int run) {
+            this.combination = combination;
+            this.run = run;
+        }
+        
+        @Override
+        public Result call() throws Exception {
+            Result result = ExperimentRunner.run(parameters.get(combination), seed + run, maxTicks);
+            result.combination = combination;
+            result.run = run;
+            return result;
+        }
+    }
+    
+    public static class Result {
+        private int combination;
+        private int run;
+        private long seed;
+        private int ticks;
+        private float resistantTime = -1.0f;
+        private float extinctTime = -1.0f;
+        private int population;
+        private int maxImmunities;
+        
+        public String toCsv(ExperimentParameters parameters) {
+            return combination + "," + parameters.toCsv() + "," + run + "," + seed + "," + ticks + "," + resistantTime + "," + extinctTime + "," + population + "," + maxImmunities;
+        }
+
+        /**
+         * Returns the game time the dish became fully resistant, or -1.
+         */
+        public float getResistantTime() {
+            return resistantTime;
+        }
+
+        /**
+         * Returns the game time every germ was dead, or -1.
+         */
+        public float getExtinctTime() {
+            return extinctTime;
+        }
+
+        public int getTicks() {
+            return ticks;
+        }
+
+        public int getPopulation() {
+            return population;
+        }
+
+        public int getMaxImmunities() {
+            return maxImmunities;
+        }
+    }
+    
+    /**
+     * Time to full resistance over the runs of one combination. Percentiles
+     * are taken over the resistant runs only.
+     */
+    private static class Summary {
+        public static final String CSV_HEADER = "runs,resistant,extinct,meanResistantTime,p10,median,p90";
+        private int runs;
+        private int extinct;
+        private final FloatArray resistantTimes = new FloatArray();
+        
+        public void add(Result result) {
+            runs++;
+            if (result.resistantTime >= 0) {
+                resistantTimes.add(result.resistantTime);
+            } else if (result.extinctTime >= 0) {
+                extinct++;
+            }
+        }
+        
+        public String toCsv() {
+            resistantTimes.sort();
+            float sum = 0.0f;
+            for (int i = 0; i < resistantTimes.size; i++) {
+                sum += resistantTimes.get(i);
+            }
+            float mean = resistantTimes.size == 0 ? -1.0f : sum / resistantTimes.size;
+            return runs + "," + resistantTimes.size + "," + extinct + "," + format(mean) + "," + format(percentile(.1f)) + "," + format(percentile(.5f)) + "," + format(percentile(.9f));
+        }
+        
+        private float percentile(float fraction) {
+            if (resistantTimes.size == 0) {
+                return -1.0f;
+            }
+            return resistantTimes.get(Math.min((int) (fraction * resistantTimes.size), resistantTimes.size - 1));
+        }
+        
+        private String format(float value) {
+            return String.format(Locale.ROOT, "%.2f", value);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.superbug.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.ray3k.superbug.Core;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+import com.ray3k.superbug.entities.GermIndex;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks {@link SimulationContext#fastForward(float)} against the per germ
+ * simulation. Every run warms a seeded dish up germ by germ, then one copy
+ * carries on germ by germ for the span while another fast-forwards over it,
+ * and both carry on germ by germ for the settle time so the recreated germs
+ * are checked too. The means of each statistic over the runs are compared and
+ * a difference passes when it is within the tolerance of the agent mean or
+ * within three standard errors. The process exits with status 1 if any
+ * difference fails.
+ */
+public class FastForwardComparison extends ApplicationAdapter {
+    private static final float DELTA = 1.0f / Core.DEFAULT_TICKS_PER_SECOND;
+    private static final float TOLERANCE = .1f;
+    private static final float MAX_ERRORS = 3.0f;
+    private static final String[] STATISTICS = {"population", "maxImmunities", "meanImmunities"};
+    private final int runs;
+    private final long seed;
+    private final float warmup;
+    private final float span;
+    private final float settle;
+    private final int threads;
+    private boolean passed;
+
+    public FastForwardComparison(int runs, long seed, float warmup, float span, float settle, int threads) {
+        this.runs = runs;
+        this.seed = seed;
+        this.warmup = warmup;
+        this.span = span;
+        this.settle = settle;
+        this.threads = threads;
+    }
+    
+    @Override
+    public void create() {
+        Core.loadHeadlessAssets();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        passed = true;
+        try {
+            List<Callable<double[][]>> tasks = new ArrayList<Callable<double[][]>>();
+            for (int run = 0; run < runs; run++) {
+                tasks.add(new Comparison(seed + run));
+            }
+            
+            long start = System.nanoTime();
+            double[][][] results = new double[runs][][];
+            List<Future<double[][]>> futures = executor.invokeAll(tasks);
+            for (int run = 0; run < runs; run++) {
+                results[run] = futures.get(run).get();
+            }
+            
+            System.out.println(runs + " runs in " + String.format(Locale.ROOT, "%.1f", (System.nanoTime() - start) / 1000000000.0) + "s, warmup " + warmup + "s, span " + span + "s, settle " + settle + "s");
+            System.out.println("time,statistic,agentMean,agentError,fastForwardMean,fastForwardError,difference,result");
+            for (int point = 0; point < 2; point++) {
+                String time = point == 0 ? "afterSpan" : "afterSettle";
+                for (int statistic = 0; statistic < STATISTICS.length; statistic++) {
+                    passed &= compare(time, statistic, results, point * 2, point * 2 + 1);
+                }
+            }
+        } catch (InterruptedException e) {
+            passed = false;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            passed = false;
+            System.err.println("Comparison failed");
+            e.getCause().printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        System.out.println(passed ? "PASS" : "FAIL");
+        Gdx.app.exit();
+    }
+    
+    @Override
+    public void dispose() {
+        Core.assetManager.dispose();
+        
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+    
+    private boolean compare(String time, int statistic, double[][][] results, int agentColumn, int fastForwardColumn) {
+        double[] agent = meanAndError(results, agentColumn, statistic);
+        double[] fastForward = meanAndError(results, fastForwardColumn, statistic);
+        double difference = fastForward[0] - agent[0];
+        double error = Math.sqrt(agent[1] * agent[1] + fastForward[1] * fastForward[1]);
+        boolean passed = Math.abs(difference) <= TOLERANCE * Math.abs(agent[0]) || Math.abs(difference) <= MAX_ERRORS * error;
+        
+        System.out.println(String.format(Locale.ROOT, "%s,%s,%.3f,%.3f,%.3f,%.3f,%.3f,%s", time, STATISTICS[statistic], agent[0], agent[1], fastForward[0], fastForward[1], difference, passed ? "ok" : "FAIL"));
+        return passed;
+    }
+    
+    /**
+     * Returns the mean of one statistic over the runs and its standard error.
+     */
+    private double[] meanAndError(double[][][] results, int column, int statistic) {
+        double sum = 0.0;
+        double squares = 0.0;
+        for (int run = 0; run < results.length; run++) {
+            double value = results[run][column][statistic];
+            sum += value;
+            squares += value * value;
+        }
+        double mean = sum / results.length;
+        double variance = results.length > 1 ? (squares - sum * mean) / (results.length - 1) : 0.0;
+        return new double[] {mean, Math.sqrt(Math.max(variance, 0.0) / results.length)};
+    }
+    
+    private static void step(SimulationContext context, float seconds) {
+        int ticks = Math.round(seconds / DELTA);
+        for (int i = 0; i < ticks; i++) {
+            context.step(DELTA);
+        }
+    }
+    
+    private static double[] measure(SimulationContext context) {
+        GermIndex index = context.getGermIndex();
+        double immunities = 0.0;
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            immunities += index.size(mask) * Immunity.count(mask);
+        }
+        
+        int size = index.size();
+        int maxImmunities = 0;
+        for (int mask = 0; mask <= Immunity.ALL; mask++) {
+            if (index.size(mask) > 0) {
+                maxImmunities = Math.max(maxImmunities, Immunity.count(mask));
+            }
+        }
+        return new double[] {size, maxImmunities, size == 0 ? 0.0 : immunities / size};
+    }
+    
+    /**
+     * One seed run both ways. Returns the agent and fast-forwarded statistics
+     * after the span, then both again after the settle time.
+     */
+    private class Comparison implements Callable<double[][]> {
+        private final long seed;
+
+        public Comparison(long seed) {
+            this.seed = seed;
+        }
+        
+        @Override
+        public double[][] call() throws Exception {
+            SimulationContext agent = new SimulationContext();
+            agent.start(seed);
+            step(agent, warmup);
+            
+            SimulationContext fastForward = new SimulationContext();
+            fastForward.start(seed);
+            step(fastForward, warmup);
+            
+            double[][] result = new double[4][];
+            step(agent, span);
+            result[0] = measure(agent);
+            
+            fastForward.fastForward(span);
+            result[1] = measure(fastForward);
+            
+            step(agent, settle);
+            result[2] = measure(agent);
+            
+            step(fastForward, settle);
+            result[3] = measure(fastForward);
+            return result;
+        }
+    }
+}
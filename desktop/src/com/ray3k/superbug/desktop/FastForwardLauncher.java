@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.ray3k.superbug.desktop;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/**
+ * Command line entry for {@link FastForwardComparison}. Arguments are runs,
+ * seed, warmup, span and settle seconds and threads, in that order.
+ */
+public class FastForwardLauncher {
+    public static void main(String[] arg) {
+        int runs = 50;
+        if (arg.length > 0) {
+            runs = Integer.parseInt(arg[0]);
+        }
+        
+        long seed = 0;
+        if (arg.length > 1) {
+            seed = Long.parseLong(arg[1]);
+        }
+        
+        float warmup = 60.0f;
+        if (arg.length > 2) {
+            warmup = Float.parseFloat(arg[2]);
+        }
+        
+        float span = 60.0f;
+        if (arg.length > 3) {
+            span = Float.parseFloat(arg[3]);
+        }
+        
+        float settle = 30.0f;
+        if (arg.length > 4) {
+            settle = Float.parseFloat(arg[4]);
+        }
+        
+        int threads = Runtime.getRuntime().availableProcessors();
+        if (arg.length > 5) {
+            threads = Integer.parseInt(arg[5]);
+        }
+        
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        new HeadlessApplication(new FastForwardComparison(runs, seed, warmup, span, settle, threads), config);
+    }
+}
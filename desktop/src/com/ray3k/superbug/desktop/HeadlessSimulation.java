@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.desktop;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.ray3k.superbug.Core;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.entities.GermEntity;
+import com.ray3k.superbug.entities.GermPopulation;
+import com.ray3k.superbug.entities.ParallelGermUpdater;
+
+/**
+ * Steps a {@link SimulationContext} as fast as possible with no window,
+ * GL context or batch and prints the throughput and final population. Set the
+ * system property superbug.checkStatistics to verify the population statistics
+ * against a full scan every tick. Set superbug.germPopulation to step the germs
+ * as rows of a {@link GermPopulation} instead of as entities.
+ */
+public class HeadlessSimulation extends ApplicationAdapter {
+    private static final float DELTA = .01f;
+    private final int ticks;
+    private final long seed;
+    private final int threads;
+
+    public HeadlessSimulation(int ticks, long seed, int threads) {
+        this.ticks = ticks;
+        this.seed = seed;
+        this.threads = threads;
+    }
+    
+    @Override
+    public void create() {
+        if (Boolean.getBoolean("superbug.germPopulation")) {
+            runPopulation();
+        } else {
+            runEntities();
+        }
+        
+        Gdx.app.exit();
+    }
+    
+    private void runEntities() {
+        Core.loadHeadlessAssets();
+        
+        SimulationContext context = new SimulationContext();
+        ParallelGermUpdater parallelGermUpdater = null;
+        if (threads > 0) {
+            parallelGermUpdater = new ParallelGermUpdater(context, threads);
+            context.setParallelUpdater(parallelGermUpdater);
+        }
+        context.setCheckingStatistics(Boolean.getBoolean("superbug.checkStatistics"));
+        context.start(seed);
+        
+        float resistantTime = -1.0f;
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            context.step(DELTA);
+            
+            if (resistantTime < 0 && context.getMaxImmunities() == GermEntity.Immunity.COUNT) {
+                resistantTime = context.getTime();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        System.out.println("Seed: " + seed);
+        System.out.println("Germ threads: " + threads);
+        System.out.println("Ticks: " + ticks + " (" + context.getTime() + "s of game time)");
+        printResults(elapsed, context.getGermCount(), context.getMaxImmunities(), resistantTime);
+        
+        if (parallelGermUpdater != null) {
+            parallelGermUpdater.dispose();
+        }
+    }
+    
+    /**
+     * Same as {@link #runEntities()} with the dish and first germ placed the
+     * way {@link SimulationContext#start(long)} places them. The store has no
+     * skeletons, so no assets are loaded.
+     */
+    private void runPopulation() {
+        SimulationContext context = new SimulationContext();
+        context.getRandom().setSeed(seed);
+        context.setTemperature(.5f);
+        context.setFood(1.0f);
+        GermPopulation population = new GermPopulation(context);
+        population.setDishPosition(-150.0f, 0.0f);
+        population.add(0.0f, 0.0f);
+        
+        float time = 0.0f;
+        float resistantTime = -1.0f;
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) {
+            time += DELTA;
+            population.step(DELTA);
+            
+            if (resistantTime < 0 && population.getMaxImmunities() == GermEntity.Immunity.COUNT) {
+                resistantTime = time;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        
+        System.out.println("Seed: " + seed);
+        System.out.println("Germ population store");
+        System.out.println("Ticks: " + ticks + " (" + time + "s of game time)");
+        printResults(elapsed, population.size(), population.getMaxImmunities(), resistantTime);
+    }
+    
+    private void printResults(long elapsed, int population, int maxImmunities, float resistantTime) {
+        System.out.println("Ticks/sec: " + String.format("%.1f", ticks / (elapsed / 1000000000.0)));
+        System.out.println("Final population: " + population);
+        System.out.println("Max immunities: " + maxImmunities);
+        if (resistantTime >= 0) {
+            System.out.println("Fully resistant at: " + resistantTime + "s");
+        }
+    }
+    
+    @Override
+    public void dispose() {
+        if (Core.assetManager != null) {
+            Core.assetManager.dispose();
+        }
+    }
+}
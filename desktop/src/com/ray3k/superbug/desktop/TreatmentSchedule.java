@@ -0,0 +1,103 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Raymond Buckley.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.ray3k.superbug.desktop;
+
+import com.badlogic.gdx.utils.Array;
+import com.ray3k.superbug.SimulationContext;
+import com.ray3k.superbug.entities.GermEntity.Immunity;
+
+/**
+ * Treatments applied at set times of an experiment. Written as entries joined
+ * by +, each entry being time:IMMUNITY for one treatment at that many seconds,
+ * or time:IMMUNITY/period to repeat it every period seconds after that. For
+ * example 30:PENICILLIN+60:BLEACH/20. "none" is the empty schedule.
+ * Schedules hold no per-run state and can be shared between threads.
+ */
+public class TreatmentSchedule {
+    public static final TreatmentSchedule NONE = new TreatmentSchedule("none", new Array<Entry>());
+    private final String text;
+    private final Entry[] entries;
+
+    private TreatmentSchedule(String text, Array<Entry> entries) {
+        this.text = text;
+        this.entries = entries.toArray(Entry.class);
+    }
+    
+    public static TreatmentSchedule parse(String text) {
+        if (text.equalsIgnoreCase("none")) {
+            return NONE;
+        }
+        
+        Array<Entry> entries = new Array<Entry>();
+        for (String part : text.split("\\+")) {
+            int colon = part.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Expected time:IMMUNITY in treatment schedule: " + part);
+            }
+            
+            int slash = part.indexOf('/', colon);
+            float time = Float.parseFloat(part.substring(0, colon));
+            String name = slash < 0 ? part.substring(colon + 1) : part.substring(colon + 1, slash);
+            float period = slash < 0 ? 0.0f : Float.parseFloat(part.substring(slash + 1));
+            entries.add(new Entry(time, Immunity.valueOf(name.toUpperCase()), period));
+        }
+        return new TreatmentSchedule(text, entries);
+    }
+    
+    /**
+     * Applies every treatment due after previousTime and up to time.
+     */
+    public void apply(SimulationContext context, float previousTime, float time) {
+        for (Entry entry : entries) {
+            if (time >= entry.time) {
+                float due = entry.time;
+                if (entry.period > 0) {
+                    due += (float) Math.floor((time - entry.time) / entry.period) * entry.period;
+                }
+                
+                if (due > previousTime) {
+                    context.treat(entry.immunity);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+    
+    private static class Entry {
+        private final float time;
+        private final Immunity immunity;
+        private final float period;
+
+        public Entry(float time, Immunity immunity, float period) {
+            this.time = time;
+            this.immunity = immunity;
+            this.period = period;
+        }
+    }
+}